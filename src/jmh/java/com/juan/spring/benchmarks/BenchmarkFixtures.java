@@ -0,0 +1,89 @@
+package com.juan.spring.benchmarks;
+
+import com.juan.spring.config.JwtProperties;
+import com.juan.spring.config.TokenVersionCacheProperties;
+import com.juan.spring.config.VerifiedTokenCacheProperties;
+import com.juan.spring.dto.PhoneDto;
+import com.juan.spring.dto.UserCreateUpdateDto;
+import com.juan.spring.entities.Phone;
+import com.juan.spring.entities.User;
+import com.juan.spring.security.JwtTokenProvider;
+import com.juan.spring.security.TokenRevocationRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Datos y componentes compartidos por los benchmarks que no levantan el contexto de Spring.
+ */
+final class BenchmarkFixtures {
+
+    static final String CORREO = "benchmark@bench.test";
+    static final String CONTRASENA = "Benchmark1!";
+
+    private BenchmarkFixtures() {
+    }
+
+    static User user(int phones) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setNombre("Benchmark");
+        user.setCorreo(CORREO);
+        user.setContrasena("hash");
+        user.setEstaActivo(true);
+        user.setCreado(LocalDateTime.now());
+        user.setModificado(LocalDateTime.now());
+        user.setUltimoLogin(LocalDateTime.now());
+        user.setToken("token");
+        List<Phone> telefonos = new ArrayList<>(phones);
+        for (int i = 0; i < phones; i++) {
+            Phone phone = new Phone();
+            phone.setId((long) i + 1);
+            phone.setNumero(String.valueOf(3000000 + i));
+            phone.setCodigoCiudad("1");
+            phone.setCodigoPais("57");
+            phone.setUser(user);
+            telefonos.add(phone);
+        }
+        user.setTelefonos(telefonos);
+        return user;
+    }
+
+    static UserCreateUpdateDto userDto(int phones) {
+        UserCreateUpdateDto dto = new UserCreateUpdateDto();
+        dto.setNombre("Benchmark");
+        dto.setCorreo(CORREO);
+        dto.setContrasena(CONTRASENA);
+        dto.setEstaActivo(true);
+        List<PhoneDto> telefonos = new ArrayList<>(phones);
+        for (int i = 0; i < phones; i++) {
+            PhoneDto phone = new PhoneDto();
+            phone.setNumero(String.valueOf(3000000 + i));
+            phone.setCodigoCiudad("1");
+            phone.setCodigoPais("57");
+            telefonos.add(phone);
+        }
+        dto.setTelefonos(telefonos);
+        return dto;
+    }
+
+    static JwtTokenProvider tokenProvider(JwtProperties jwtProperties, Duration cacheTtl) {
+        VerifiedTokenCacheProperties cacheProperties = new VerifiedTokenCacheProperties();
+        cacheProperties.setTtl(cacheTtl);
+        JwtTokenProvider provider = new JwtTokenProvider(jwtProperties, cacheProperties,
+                revocationRegistry(), new SimpleMeterRegistry());
+        provider.init();
+        return provider;
+    }
+
+    // Todos los usuarios con la versión de token inicial; tras la primera petición se resuelve desde la caché
+    static TokenRevocationRegistry revocationRegistry() {
+        return new TokenRevocationRegistry(userId -> Optional.of(0), new TokenVersionCacheProperties(),
+                new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,84 @@
+package com.juan.spring.benchmarks;
+
+import com.juan.spring.config.JwtProperties;
+import com.juan.spring.security.AuthenticatedUser;
+import com.juan.spring.security.CustomUserDetailsService;
+import com.juan.spring.security.JwtAuthenticationFilter;
+import com.juan.spring.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el costo por petición de {@link JwtAuthenticationFilter} con un token válido. El almacén de usuarios
+ * es un stub en memoria, así que en modo {@code lookup} se mide el filtro sin la consulta a la base de datos;
+ * en modo {@code selfContained} el usuario sale de los claims del token.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"lookup", "selfContained"})
+    private String mode;
+
+    @Param({"0", "300"})
+    private int cacheTtlSeconds;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+
+    @Setup
+    public void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setJwtSelfContained("selfContained".equals(mode));
+        JwtTokenProvider tokenProvider = BenchmarkFixtures.tokenProvider(jwtProperties, Duration.ofSeconds(cacheTtlSeconds));
+        String token = tokenProvider.generarToken(new UsernamePasswordAuthenticationToken(
+                BenchmarkFixtures.CORREO, null, CustomUserDetailsService.DEFAULT_AUTHORITIES), UUID.randomUUID());
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "tokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(filter, "customUserDetailsService", new StubUserDetailsService());
+
+        request = new MockHttpServletRequest("GET", "/users");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> { };
+    }
+
+    @Benchmark
+    public Authentication doFilter() throws ServletException, IOException {
+        filter.doFilter(request, response, chain);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    static class StubUserDetailsService extends CustomUserDetailsService {
+
+        private final AuthenticatedUser user = new AuthenticatedUser(UUID.randomUUID(), BenchmarkFixtures.CORREO,
+                "hash", DEFAULT_AUTHORITIES);
+
+        @Override
+        public UserDetails loadUserByUsername(String correo) {
+            return user;
+        }
+    }
+}
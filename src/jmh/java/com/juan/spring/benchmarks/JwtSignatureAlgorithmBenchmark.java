@@ -0,0 +1,92 @@
+package com.juan.spring.benchmarks;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo criptográfico de firmar y verificar la misma entrada JWS ({@code encabezado.payload}) con HS512, ES256
+ * y EdDSA (Ed25519), usando directamente JCA para que los tres algoritmos se comparen sin el armado del token.
+ * jjwt 0.11 no soporta EdDSA, así que este es el único benchmark que lo incluye; requiere Java 15 o superior.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtSignatureAlgorithmBenchmark {
+
+    @Param({"HS512", "ES256", "EdDSA"})
+    private String algorithm;
+
+    private byte[] signingInput;
+    private byte[] signature;
+
+    private SecretKey secretKey;
+    private KeyPair keyPair;
+    private String jcaAlgorithm;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+        String header = "{\"kid\":\"k1\",\"alg\":\"" + algorithm + "\"}";
+        String payload = "{\"sub\":\"" + BenchmarkFixtures.CORREO + "\",\"iat\":1700000000,\"exp\":1700003600}";
+        signingInput = (base64.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + "."
+            + base64.encodeToString(payload.getBytes(StandardCharsets.UTF_8))).getBytes(StandardCharsets.US_ASCII);
+
+        switch (algorithm) {
+            case "HS512":
+                secretKey = Keys.secretKeyFor(SignatureAlgorithm.HS512);
+                break;
+            case "ES256":
+                keyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+                jcaAlgorithm = "SHA256withECDSA";
+                break;
+            case "EdDSA":
+                keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+                jcaAlgorithm = "Ed25519";
+                break;
+            default:
+                throw new IllegalArgumentException("Algoritmo no soportado: " + algorithm);
+        }
+        signature = firmar();
+    }
+
+    @Benchmark
+    public byte[] firmar() throws GeneralSecurityException {
+        if (secretKey != null) {
+            Mac mac = Mac.getInstance("HmacSHA512");
+            mac.init(secretKey);
+            return mac.doFinal(signingInput);
+        }
+        Signature signer = Signature.getInstance(jcaAlgorithm);
+        signer.initSign(keyPair.getPrivate());
+        signer.update(signingInput);
+        return signer.sign();
+    }
+
+    @Benchmark
+    public boolean verificar() throws GeneralSecurityException {
+        if (secretKey != null) {
+            Mac mac = Mac.getInstance("HmacSHA512");
+            mac.init(secretKey);
+            return MessageDigest.isEqual(mac.doFinal(signingInput), signature);
+        }
+        Signature verifier = Signature.getInstance(jcaAlgorithm);
+        verifier.initVerify(keyPair.getPublic());
+        verifier.update(signingInput);
+        return verifier.verify(signature);
+    }
+}
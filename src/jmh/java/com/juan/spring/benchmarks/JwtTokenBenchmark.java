@@ -0,0 +1,57 @@
+package com.juan.spring.benchmarks;
+
+import com.juan.spring.config.JwtProperties;
+import com.juan.spring.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la emisión y verificación de tokens de {@link JwtTokenProvider} con cada algoritmo de firma soportado.
+ * Con {@code cacheTtlSeconds=0} cada verificación comprueba la firma; con un TTL mayor se mide la ruta de la
+ * caché de tokens verificados.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenBenchmark {
+
+    @Param({"HS512", "ES256"})
+    private String algorithm;
+
+    @Param({"0", "300"})
+    private int cacheTtlSeconds;
+
+    private JwtTokenProvider tokenProvider;
+    private UsernamePasswordAuthenticationToken authentication;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setJwtAlgorithm(algorithm);
+        tokenProvider = BenchmarkFixtures.tokenProvider(jwtProperties, Duration.ofSeconds(cacheTtlSeconds));
+        authentication = new UsernamePasswordAuthenticationToken(BenchmarkFixtures.CORREO, null);
+        token = tokenProvider.generarToken(authentication);
+    }
+
+    @Benchmark
+    public String generarToken() {
+        return tokenProvider.generarToken(authentication);
+    }
+
+    @Benchmark
+    public boolean validarToken() {
+        return tokenProvider.validarToken(token);
+    }
+
+    @Benchmark
+    public String obtenerUsernameDelJWT() {
+        return tokenProvider.obtenerUsernameDelJWT(token);
+    }
+}
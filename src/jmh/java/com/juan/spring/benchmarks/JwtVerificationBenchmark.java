@@ -0,0 +1,88 @@
+package com.juan.spring.benchmarks;
+
+import com.juan.spring.config.JwtProperties;
+import com.juan.spring.config.VerifiedTokenCacheProperties;
+import com.juan.spring.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la verificación previa (parser nuevo y doble parseo por petición) con la verificación
+ * en una sola pasada de {@link JwtTokenProvider#verificarToken}, con y sin caché de tokens verificados.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+
+    private SecretKey legacyKey;
+    private String legacyToken;
+
+    private JwtTokenProvider uncachedProvider;
+    private String uncachedToken;
+
+    private JwtTokenProvider cachedProvider;
+    private String cachedToken;
+
+    @Setup
+    public void setUp() {
+        legacyKey = Keys.secretKeyFor(SignatureAlgorithm.HS512);
+        legacyToken = Jwts.builder()
+                .setSubject("benchmark@bench.test")
+                .setIssuedAt(new Date())
+                .signWith(legacyKey)
+                .compact();
+
+        // TTL cero: cada entrada expira al crearse, mide solo el parser reutilizado y la pasada única
+        uncachedProvider = provider(Duration.ZERO);
+        uncachedToken = uncachedProvider.generarToken(authentication());
+
+        cachedProvider = provider(Duration.ofMinutes(5));
+        cachedToken = cachedProvider.generarToken(authentication());
+        cachedProvider.verificarToken(cachedToken);
+    }
+
+    @Benchmark
+    public String doubleParse() {
+        // Ruta previa del filtro: validarToken + obtenerUsernameDelJWT, cada uno con su propio parser
+        Jwts.parserBuilder().setSigningKey(legacyKey).build().parseClaimsJws(legacyToken);
+        Claims claims = Jwts.parserBuilder().setSigningKey(legacyKey).build().parseClaimsJws(legacyToken).getBody();
+        return claims.getSubject();
+    }
+
+    @Benchmark
+    public String singlePass() {
+        return uncachedProvider.verificarToken(uncachedToken).getClaims().getSubject();
+    }
+
+    @Benchmark
+    public String singlePassCached() {
+        return cachedProvider.verificarToken(cachedToken).getClaims().getSubject();
+    }
+
+    private static JwtTokenProvider provider(Duration cacheTtl) {
+        VerifiedTokenCacheProperties properties = new VerifiedTokenCacheProperties();
+        properties.setTtl(cacheTtl);
+        JwtTokenProvider provider = new JwtTokenProvider(new JwtProperties(), properties,
+                BenchmarkFixtures.revocationRegistry(), new SimpleMeterRegistry());
+        provider.init();
+        return provider;
+    }
+
+    private static UsernamePasswordAuthenticationToken authentication() {
+        return new UsernamePasswordAuthenticationToken("benchmark@bench.test", null);
+    }
+}
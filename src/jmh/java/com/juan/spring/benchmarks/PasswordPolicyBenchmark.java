@@ -0,0 +1,51 @@
+package com.juan.spring.benchmarks;
+
+import com.juan.spring.validation.UserInputValidator;
+import com.juan.spring.validation.ValidationPatterns;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compara el patrón de contraseña precompilado con el verificador de {@link UserInputValidator} sobre entradas
+ * adversarias: solo minúsculas con el resto de requisitos al final, de modo que cada lookahead del patrón recorre
+ * la cadena completa. Por encima de {@link ValidationPatterns#PASSWORD_MAX_LENGTH} el verificador la rechaza sin
+ * recorrerla.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordPolicyBenchmark {
+
+    @Param({"16", "64", "128", "1024", "16384"})
+    private int length;
+
+    private final UserInputValidator validator = new UserInputValidator();
+    private final Pattern pattern = Pattern.compile(ValidationPatterns.PASSWORD_PATTERN);
+    private String password;
+
+    @Setup
+    public void setUp() {
+        char[] chars = new char[length];
+        Arrays.fill(chars, 'a');
+        chars[length - 3] = 'A';
+        chars[length - 2] = '1';
+        chars[length - 1] = '!';
+        password = new String(chars);
+    }
+
+    @Benchmark
+    public boolean compiledPattern() {
+        return pattern.matcher(password).matches();
+    }
+
+    @Benchmark
+    public boolean policyChecker() {
+        return validator.isValidPassword(password);
+    }
+}
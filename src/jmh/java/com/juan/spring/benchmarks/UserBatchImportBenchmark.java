@@ -0,0 +1,113 @@
+package com.juan.spring.benchmarks;
+
+import com.juan.spring.Application;
+import com.juan.spring.dto.PhoneDto;
+import com.juan.spring.dto.UserCreateUpdateDto;
+import com.juan.spring.services.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara crear usuarios uno por uno con {@link UserService#createUserWithValidation} (lo que hace cada
+ * POST /users) contra {@link UserService#importUsers}. El resultado es tiempo por usuario.
+ * BCrypt usa costo 4 para que la comparación mida la persistencia y no solo el hash; con el costo de
+ * producción el hash domina ambos casos y la ganancia queda limitada por la cantidad de CPUs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserBatchImportBenchmark {
+
+    private static final int USERS = 500;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+
+    private List<UserCreateUpdateDto> users;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                // Como hace @SpringBootTest, las configuraciones de test del classpath no entran al escaneo
+                .initializers(ctx -> ctx.getBeanFactory().registerSingleton(
+                        ExcludeTestConfigurations.class.getName(), new ExcludeTestConfigurations()))
+                // Como argumentos y no como properties(): deben ganarle a application.properties
+                .run("--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.jpa.show-sql=false",
+                        "--app.security.password-hashing.bcrypt-strength=4",
+                        "--logging.level.root=WARN");
+        userService = context.getBean(UserService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    // Correos nuevos en cada invocación para no chocar con los ya creados
+    @Setup(Level.Invocation)
+    public void newUsers() {
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(user(prefix + "-" + i + "@bench.test"));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(USERS)
+    public int sequentialCreates() {
+        int created = 0;
+        for (UserCreateUpdateDto user : users) {
+            userService.createUserWithValidation(user);
+            created++;
+        }
+        return created;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(USERS)
+    public int batchImport() {
+        return userService.importUsers(users).getCreados();
+    }
+
+    private static UserCreateUpdateDto user(String correo) {
+        UserCreateUpdateDto user = new UserCreateUpdateDto();
+        user.setNombre("Benchmark");
+        user.setCorreo(correo);
+        user.setContrasena("Bench123!");
+        user.setTelefonos(Arrays.asList(phone("1234567"), phone("7654321")));
+        return user;
+    }
+
+    private static PhoneDto phone(String numero) {
+        PhoneDto phone = new PhoneDto();
+        phone.setNumero(numero);
+        phone.setCodigoCiudad("1");
+        phone.setCodigoPais("57");
+        return phone;
+    }
+
+    private static final class ExcludeTestConfigurations extends TypeExcludeFilter {
+        @Override
+        public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+            return metadataReader.getAnnotationMetadata().hasAnnotation(TestConfiguration.class.getName());
+        }
+    }
+}
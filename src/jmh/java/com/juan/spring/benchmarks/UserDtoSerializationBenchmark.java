@@ -0,0 +1,49 @@
+package com.juan.spring.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.juan.spring.dto.UserDto;
+import com.juan.spring.services.UserServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la serialización con Jackson de una lista de {@link UserDto} como la que retorna {@code GET /users},
+ * con el mismo {@code ObjectMapper} base que configura Spring Boot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserDtoSerializationBenchmark {
+
+    @Param({"50"})
+    private int users;
+
+    @Param({"0", "3", "50"})
+    private int phones;
+
+    private ObjectWriter writer;
+    private List<UserDto> page;
+
+    @Setup
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+        UserServiceImpl userService = new UserServiceImpl();
+        page = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            page.add(userService.convertToDto(BenchmarkFixtures.user(phones)));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,62 @@
+package com.juan.spring.benchmarks;
+
+import com.juan.spring.dto.UserCreateUpdateDto;
+import com.juan.spring.dto.UserDto;
+import com.juan.spring.entities.User;
+import com.juan.spring.services.UserServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la conversión entre entidades y DTOs de {@link UserServiceImpl} para usuarios con 0, 3 y 50
+ * teléfonos. La contraseña se "codifica" con un encoder sin hash para
+ * que el resultado refleje solo el mapeo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserMappingBenchmark {
+
+    private static final PasswordEncoder PLAIN_TEXT = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    };
+
+    @Param({"0", "3", "50"})
+    private int phones;
+
+    private UserServiceImpl userService;
+    private User user;
+    private UserCreateUpdateDto dto;
+
+    @Setup
+    public void setUp() {
+        userService = new UserServiceImpl();
+        ReflectionTestUtils.setField(userService, "passwordEncoder", PLAIN_TEXT);
+        user = BenchmarkFixtures.user(phones);
+        dto = BenchmarkFixtures.userDto(phones);
+    }
+
+    @Benchmark
+    public UserDto convertToDto() {
+        return userService.convertToDto(user);
+    }
+
+    @Benchmark
+    public User convertToEntity() {
+        return userService.convertToEntity(dto);
+    }
+}
@@ -0,0 +1,59 @@
+package com.juan.spring.benchmarks;
+
+import com.juan.spring.dto.UserCreateUpdateDto;
+import com.juan.spring.dto.ValidationErrorResponse;
+import com.juan.spring.services.UserServiceImpl;
+import com.juan.spring.validation.UserInputValidator;
+import com.juan.spring.validation.ValidationPatterns;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Mide {@link UserServiceImpl#validateUserData} con datos válidos y con correo y contraseña inválidos, frente a
+ * la validación previa que compilaba los patrones con {@code Pattern.matches} en cada llamada.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserValidationBenchmark {
+
+    @Param({"valid", "invalid"})
+    private String input;
+
+    private UserServiceImpl userService;
+    private UserCreateUpdateDto dto;
+
+    @Setup
+    public void setUp() {
+        userService = new UserServiceImpl();
+        ReflectionTestUtils.setField(userService, "userInputValidator", new UserInputValidator());
+        dto = BenchmarkFixtures.userDto(0);
+        if ("invalid".equals(input)) {
+            dto.setCorreo("benchmark@bench");
+            dto.setContrasena("benchmark");
+        }
+    }
+
+    @Benchmark
+    public ValidationErrorResponse validateUserData() {
+        return userService.validateUserData(dto);
+    }
+
+    @Benchmark
+    public ValidationErrorResponse patternMatchesPerCall() {
+        ValidationErrorResponse errors = new ValidationErrorResponse();
+        if (!Pattern.matches(ValidationPatterns.EMAIL_PATTERN, dto.getCorreo())) {
+            errors.addError(ValidationPatterns.EMAIL_ERROR_MESSAGE);
+        }
+        if (!Pattern.matches(ValidationPatterns.PASSWORD_PATTERN, dto.getContrasena())) {
+            errors.addError(ValidationPatterns.PASSWORD_ERROR_MESSAGE);
+        }
+        return errors;
+    }
+}
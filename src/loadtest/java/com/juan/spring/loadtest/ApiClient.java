@@ -0,0 +1,84 @@
+package com.juan.spring.loadtest;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Cliente HTTP de la prueba de carga, con un pool de conexiones persistentes del tamaño de la cantidad de
+ * clientes concurrentes.
+ */
+final class ApiClient implements Closeable {
+
+    static final int IO_ERROR = -1;
+
+    private final String baseUrl;
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+
+    ApiClient(String baseUrl, int connections) {
+        this.baseUrl = baseUrl;
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(connections);
+        connectionManager.setDefaultMaxPerRoute(connections);
+        this.httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .disableAutomaticRetries()
+            .build();
+        this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        // Los códigos 4xx y 5xx se cuentan como resultados, no como excepciones
+        this.restTemplate.setErrorHandler(new DefaultResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) {
+                return false;
+            }
+        });
+    }
+
+    // Retorna el código de estado de la respuesta, o IO_ERROR si la solicitud no se completó
+    int call(HttpMethod method, String path, Object body, String token) {
+        try {
+            return restTemplate.exchange(baseUrl + path, method, entity(body, token), byte[].class).getStatusCodeValue();
+        } catch (ResourceAccessException e) {
+            return IO_ERROR;
+        }
+    }
+
+    // Para la preparación de datos: cualquier respuesta que no sea 2xx detiene la prueba
+    <T> T require(HttpMethod method, String path, Object body, String token, Class<T> type) {
+        ResponseEntity<T> response = restTemplate.exchange(baseUrl + path, method, entity(body, token), type);
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new IllegalStateException(method + " " + path + " respondió " + response.getStatusCodeValue());
+        }
+        return response.getBody();
+    }
+
+    private static HttpEntity<Object> entity(Object body, String token) {
+        HttpHeaders headers = new HttpHeaders();
+        if (body != null) {
+            headers.setContentType(MediaType.APPLICATION_JSON);
+        }
+        if (token != null) {
+            headers.setBearerAuth(token);
+        }
+        return new HttpEntity<>(body, headers);
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+}
@@ -0,0 +1,74 @@
+package com.juan.spring.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias y resultados de una operación. La latencia se mide desde el instante en que la solicitud
+ * debía enviarse según la tasa objetivo, de modo que el tiempo en cola del cliente también cuenta.
+ */
+final class EndpointStats {
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final Operation operation;
+    private final Histogram latencies = new ConcurrentHistogram(MAX_TRACKABLE_NANOS, 3);
+    private final LongAdder errors = new LongAdder();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    EndpointStats(Operation operation) {
+        this.operation = operation;
+    }
+
+    // status -1 representa un error de conexión o de E/S
+    void record(long latencyNanos, int status) {
+        latencies.recordValue(Math.min(latencyNanos, MAX_TRACKABLE_NANOS));
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        if (status < 200 || status >= 400) {
+            errors.increment();
+        }
+    }
+
+    Operation getOperation() {
+        return operation;
+    }
+
+    long getRequests() {
+        return latencies.getTotalCount();
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    double percentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1_000_000.0;
+    }
+
+    double meanMillis() {
+        return latencies.getMean() / 1_000_000.0;
+    }
+
+    double maxMillis() {
+        return latencies.getMaxValue() / 1_000_000.0;
+    }
+
+    Map<String, Long> statusCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        statuses.forEach((status, count) -> counts.put(status < 0 ? "io-error" : String.valueOf(status), count.sum()));
+        return counts;
+    }
+
+    void add(EndpointStats other) {
+        latencies.add(other.latencies);
+        errors.add(other.errors.sum());
+        other.statuses.forEach((status, count) ->
+            statuses.computeIfAbsent(status, s -> new LongAdder()).add(count.sum()));
+    }
+}
@@ -0,0 +1,154 @@
+package com.juan.spring.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parámetros de la prueba de carga, leídos de propiedades del sistema {@code loadtest.*}.
+ */
+final class LoadTestConfig {
+
+    static final String DEFAULT_MIX = "login=25,registro=5,getById=35,list=15,put=8,patch=8,delete=4";
+
+    private final int users;
+    private final double rate;
+    private final Duration duration;
+    private final Duration warmup;
+    private final int clients;
+    private final Map<Operation, Integer> mix;
+    private final Path output;
+    private final String bcryptStrength;
+    private final boolean virtualThreads;
+
+    private LoadTestConfig(int users, double rate, Duration duration, Duration warmup, int clients,
+                           Map<Operation, Integer> mix, Path output, String bcryptStrength, boolean virtualThreads) {
+        if (users <= 0 || rate <= 0 || clients <= 0 || duration.isZero() || duration.isNegative()) {
+            throw new IllegalArgumentException("loadtest.users, loadtest.rate, loadtest.clients y loadtest.duration deben ser positivos");
+        }
+        this.users = users;
+        this.rate = rate;
+        this.duration = duration;
+        this.warmup = warmup;
+        this.clients = clients;
+        this.mix = mix;
+        this.output = output;
+        this.bcryptStrength = bcryptStrength;
+        this.virtualThreads = virtualThreads;
+    }
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+            Integer.parseInt(property("users", "200")),
+            Double.parseDouble(property("rate", "50")),
+            DurationStyle.detectAndParse(property("duration", "60s")),
+            DurationStyle.detectAndParse(property("warmup", "15s")),
+            Integer.parseInt(property("clients", "32")),
+            parseMix(property("mix", DEFAULT_MIX)),
+            Paths.get(property("output", "target/loadtest")),
+            property("bcrypt-strength", ""),
+            Boolean.parseBoolean(property("virtual-threads", "false")));
+    }
+
+    // Formato: clave=peso separados por comas, por ejemplo "login=50,getById=50"
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Entrada inválida en loadtest.mix: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Peso negativo en loadtest.mix: " + entry);
+            }
+            if (weight > 0) {
+                mix.put(Operation.fromKey(parts[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix no tiene operaciones con peso positivo");
+        }
+        return Collections.unmodifiableMap(mix);
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty("loadtest." + name);
+        return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+    }
+
+    // Solicitudes de la operación esperadas en el calentamiento y la medición
+    long expectedRequests(Operation operation) {
+        Integer weight = mix.get(operation);
+        if (weight == null) {
+            return 0;
+        }
+        double seconds = (warmup.toMillis() + duration.toMillis()) / 1000.0;
+        return (long) Math.ceil(rate * seconds * weight / totalWeight());
+    }
+
+    int totalWeight() {
+        int total = 0;
+        for (int weight : mix.values()) {
+            total += weight;
+        }
+        return total;
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("users", users);
+        description.put("rate", rate);
+        description.put("durationSeconds", duration.getSeconds());
+        description.put("warmupSeconds", warmup.getSeconds());
+        description.put("clients", clients);
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        mix.forEach((operation, weight) -> weights.put(operation.getKey(), weight));
+        description.put("mix", weights);
+        description.put("bcryptStrength", bcryptStrength.isEmpty() ? "application.properties" : bcryptStrength);
+        description.put("virtualThreads", virtualThreads);
+        return description;
+    }
+
+    int getUsers() {
+        return users;
+    }
+
+    double getRate() {
+        return rate;
+    }
+
+    Duration getDuration() {
+        return duration;
+    }
+
+    Duration getWarmup() {
+        return warmup;
+    }
+
+    int getClients() {
+        return clients;
+    }
+
+    Map<Operation, Integer> getMix() {
+        return mix;
+    }
+
+    Path getOutput() {
+        return output;
+    }
+
+    String getBcryptStrength() {
+        return bcryptStrength;
+    }
+
+    boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+}
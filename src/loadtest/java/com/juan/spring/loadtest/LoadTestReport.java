@@ -0,0 +1,160 @@
+package com.juan.spring.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resultado de una ejecución: throughput, percentiles de latencia y errores por endpoint, escritos como
+ * {@code report.json} y {@code report.html}.
+ */
+final class LoadTestReport {
+
+    private static final double[] PERCENTILES = {50, 95, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p95", "p99", "p99.9"};
+
+    private final Map<String, Object> config;
+    private final double seconds;
+    private final List<EndpointStats> endpoints;
+    private final EndpointStats total;
+    private final long skipped;
+
+    LoadTestReport(Map<String, Object> config, double seconds, List<EndpointStats> endpoints, long skipped) {
+        this.config = config;
+        this.seconds = seconds;
+        this.endpoints = endpoints;
+        this.skipped = skipped;
+        this.total = new EndpointStats(null);
+        endpoints.forEach(total::add);
+    }
+
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+            .writeValue(directory.resolve("report.json").toFile(), toMap());
+        try (Writer writer = Files.newBufferedWriter(directory.resolve("report.html"), StandardCharsets.UTF_8)) {
+            writer.write(toHtml());
+        }
+    }
+
+    void print(PrintStream out) {
+        out.println(String.format(Locale.ROOT, "%-26s %9s %9s %8s %9s %9s %9s %9s",
+            "endpoint", "req", "req/s", "error%", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms"));
+        for (EndpointStats stats : endpoints) {
+            out.println(line(stats.getOperation().getEndpoint(), stats));
+        }
+        out.println(line("total", total));
+        if (skipped > 0) {
+            out.println("Solicitudes omitidas (sin usuarios para eliminar): " + skipped);
+        }
+    }
+
+    private String line(String name, EndpointStats stats) {
+        return String.format(Locale.ROOT, "%-26s %9d %9.1f %8.2f %9.2f %9.2f %9.2f %9.2f",
+            name, stats.getRequests(), throughput(stats), errorRate(stats) * 100,
+            stats.percentileMillis(50), stats.percentileMillis(95),
+            stats.percentileMillis(99), stats.percentileMillis(99.9));
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generated", Instant.now().toString());
+        report.put("config", config);
+        report.put("measuredSeconds", seconds);
+        report.put("skipped", skipped);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (EndpointStats stats : endpoints) {
+            Map<String, Object> row = describe(stats);
+            row.put("operation", stats.getOperation().getKey());
+            row.put("endpoint", stats.getOperation().getEndpoint());
+            rows.add(row);
+        }
+        report.put("endpoints", rows);
+        report.put("total", describe(total));
+        return report;
+    }
+
+    private Map<String, Object> describe(EndpointStats stats) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("requests", stats.getRequests());
+        row.put("errors", stats.getErrors());
+        row.put("errorRate", errorRate(stats));
+        row.put("throughput", throughput(stats));
+        Map<String, Double> latency = new LinkedHashMap<>();
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            latency.put(PERCENTILE_NAMES[i], stats.percentileMillis(PERCENTILES[i]));
+        }
+        latency.put("mean", stats.meanMillis());
+        latency.put("max", stats.maxMillis());
+        row.put("latencyMs", latency);
+        row.put("status", stats.statusCounts());
+        return row;
+    }
+
+    private String toHtml() {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html lang=\"es\">\n<head>\n<meta charset=\"utf-8\">\n")
+            .append("<title>Prueba de carga</title>\n<style>\n")
+            .append("body{font-family:sans-serif;margin:2em}table{border-collapse:collapse}")
+            .append("th,td{border:1px solid #ccc;padding:4px 8px;text-align:right}")
+            .append("th:first-child,td:first-child{text-align:left}tr.total{font-weight:bold}")
+            .append("td.error{color:#b00}\n</style>\n</head>\n<body>\n")
+            .append("<h1>Prueba de carga</h1>\n<p>").append(escape(config.toString()))
+            .append("<br>Medición: ").append(format(seconds)).append(" s</p>\n<table>\n<tr><th>Endpoint</th>")
+            .append("<th>Solicitudes</th><th>req/s</th><th>Errores</th><th>% error</th>");
+        for (String name : PERCENTILE_NAMES) {
+            html.append("<th>").append(name).append(" ms</th>");
+        }
+        html.append("<th>máx ms</th><th>Códigos</th></tr>\n");
+        for (EndpointStats stats : endpoints) {
+            row(html, "", stats.getOperation().getEndpoint(), stats);
+        }
+        row(html, " class=\"total\"", "Total", total);
+        html.append("</table>\n");
+        if (skipped > 0) {
+            html.append("<p>Solicitudes omitidas (sin usuarios para eliminar): ").append(skipped).append("</p>\n");
+        }
+        return html.append("</body>\n</html>\n").toString();
+    }
+
+    private void row(StringBuilder html, String attributes, String name, EndpointStats stats) {
+        html.append("<tr").append(attributes).append("><td>").append(escape(name)).append("</td><td>")
+            .append(stats.getRequests()).append("</td><td>").append(format(throughput(stats))).append("</td><td")
+            .append(stats.getErrors() > 0 ? " class=\"error\"" : "").append(">").append(stats.getErrors())
+            .append("</td><td>").append(format(errorRate(stats) * 100)).append("</td>");
+        for (double percentile : PERCENTILES) {
+            html.append("<td>").append(format(stats.percentileMillis(percentile))).append("</td>");
+        }
+        html.append("<td>").append(format(stats.maxMillis())).append("</td><td>")
+            .append(escape(stats.statusCounts().toString())).append("</td></tr>\n");
+    }
+
+    private double throughput(EndpointStats stats) {
+        return seconds > 0 ? stats.getRequests() / seconds : 0;
+    }
+
+    private static double errorRate(EndpointStats stats) {
+        return stats.getRequests() > 0 ? (double) stats.getErrors() / stats.getRequests() : 0;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static String escape(String value) {
+        return HtmlUtils.htmlEscape(value);
+    }
+}
@@ -0,0 +1,285 @@
+package com.juan.spring.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.juan.spring.Application;
+import com.juan.spring.dto.LoginDto;
+import com.juan.spring.dto.PhoneDto;
+import com.juan.spring.dto.SignUpDto;
+import com.juan.spring.dto.UserBatchRowDto;
+import com.juan.spring.dto.UserCreateUpdateDto;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de carga de la API: levanta la aplicación en un puerto aleatorio con una base H2 propia, crea los
+ * usuarios iniciales a través de la API y ejecuta la mezcla de operaciones de {@code loadtest.mix} a la tasa
+ * {@code loadtest.rate} con {@code loadtest.clients} clientes concurrentes. Las solicitudes se programan a
+ * intervalos fijos (carga abierta), así que si la API no da abasto la espera en cola aparece en la latencia.
+ *
+ * <p>Se ejecuta con el perfil {@code loadtest}:
+ * {@code mvn -Ploadtest -DskipTests test-compile exec:exec -Dloadtest.rate=100 -Dloadtest.duration=2m}
+ */
+public final class LoadTestRunner {
+
+    private static final String CONTRASENA = "Carga123!";
+    private static final int SEED_CHUNK = 500;
+    private static final int SKIPPED = Integer.MIN_VALUE;
+
+    private final LoadTestConfig config;
+    private final ApiClient api;
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final List<SeededUser> users = new ArrayList<>();
+    private final ConcurrentLinkedQueue<UUID> deletable = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger registrations = new AtomicInteger();
+    private final AtomicLong skipped = new AtomicLong();
+    private String token;
+
+    LoadTestRunner(LoadTestConfig config, ApiClient api) {
+        this.config = config;
+        this.api = api;
+        this.operations = config.getMix().keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += config.getMix().get(operations[i]);
+            cumulativeWeights[i] = total;
+            stats.put(operations[i], new EndpointStats(operations[i]));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        LoadTestReport report;
+        try (ConfigurableApplicationContext context = startApplication(config)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            try (ApiClient api = new ApiClient("http://localhost:" + port, config.getClients())) {
+                LoadTestRunner runner = new LoadTestRunner(config, api);
+                runner.seed();
+                report = runner.run();
+            }
+        }
+        report.write(config.getOutput());
+        report.print(System.out);
+        System.out.println("Reportes en " + config.getOutput().toAbsolutePath());
+    }
+
+    private static ConfigurableApplicationContext startApplication(LoadTestConfig config) {
+        // devtools relanzaría la aplicación en otro classloader; se lee como propiedad del sistema
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<String> args = new ArrayList<>(Arrays.asList(
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:loadtest-" + UUID.randomUUID() + ";DB_CLOSE_ON_EXIT=FALSE",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN"));
+        if (!config.getBcryptStrength().isEmpty()) {
+            args.add("--app.security.password-hashing.bcrypt-strength=" + config.getBcryptStrength());
+        }
+        if (config.isVirtualThreads()) {
+            args.add("--app.threads.virtual.enabled=true");
+        }
+        return new SpringApplicationBuilder(Application.class)
+            // Como hace @SpringBootTest, las configuraciones de test del classpath no entran al escaneo
+            .initializers(ctx -> ctx.getBeanFactory().registerSingleton(
+                ExcludeTestConfigurations.class.getName(), new ExcludeTestConfigurations()))
+            // Como argumentos y no como properties(): deben ganarle a application.properties
+            .run(args.toArray(new String[0]));
+    }
+
+    // Un operador registrado hace las llamadas autenticadas; los usuarios se crean con POST /users/batch
+    void seed() {
+        SignUpDto operador = new SignUpDto();
+        operador.setName("Operador de carga");
+        operador.setCorreo("operador-" + runId + "@load.test");
+        operador.setContrasena(CONTRASENA);
+        token = api.require(HttpMethod.POST, "/api/auth/registro", operador, null, JsonNode.class)
+            .get("accessToken").asText();
+
+        for (UserBatchRowDto row : importUsers("carga", config.getUsers())) {
+            users.add(new SeededUser(row.getId(), row.getCorreo(), row.getIndice()));
+        }
+        // Margen sobre las eliminaciones esperadas para no quedarse sin usuarios a mitad de la prueba
+        long expectedDeletes = config.expectedRequests(Operation.DELETE);
+        int toDelete = expectedDeletes == 0 ? 0 : (int) Math.min(Integer.MAX_VALUE, expectedDeletes * 5 / 4 + 10);
+        for (UserBatchRowDto row : importUsers("baja", toDelete)) {
+            deletable.add(row.getId());
+        }
+        System.out.println("Usuarios creados: " + users.size() + " activos, " + deletable.size() + " para eliminar");
+    }
+
+    private List<UserBatchRowDto> importUsers(String prefix, int count) {
+        List<UserBatchRowDto> created = new ArrayList<>(count);
+        for (int from = 0; from < count; from += SEED_CHUNK) {
+            List<UserCreateUpdateDto> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(count, from + SEED_CHUNK); i++) {
+                chunk.add(user("Carga " + i, correo(prefix, i), true));
+            }
+            JsonNode result = api.require(HttpMethod.POST, "/users/batch", chunk, token, JsonNode.class);
+            for (JsonNode row : result.get("resultados")) {
+                if (!UserBatchRowDto.CREADO.equals(row.get("estado").asText())) {
+                    throw new IllegalStateException("No se pudo crear " + row.get("correo").asText() + ": "
+                        + row.path("error").asText());
+                }
+                created.add(UserBatchRowDto.creado(from + row.get("indice").asInt(), row.get("correo").asText(),
+                    UUID.fromString(row.get("id").asText())));
+            }
+        }
+        return created;
+    }
+
+    LoadTestReport run() throws InterruptedException {
+        long period = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / config.getRate()));
+        long start = System.nanoTime();
+        long measureFrom = start + config.getWarmup().toNanos();
+        long end = measureFrom + config.getDuration().toNanos();
+
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(config.getClients(), runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-client-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * period;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = pick();
+            boolean measured = scheduled >= measureFrom;
+            clients.execute(() -> execute(operation, scheduled, measured));
+        }
+        clients.shutdown();
+        if (!clients.awaitTermination(5, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Las solicitudes pendientes no terminaron en 5 minutos");
+        }
+
+        double seconds = config.getDuration().toMillis() / 1000.0;
+        return new LoadTestReport(config.describe(), seconds, new ArrayList<>(stats.values()), skipped.get());
+    }
+
+    private Operation pick() {
+        int value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private void execute(Operation operation, long scheduled, boolean measured) {
+        int status = perform(operation);
+        if (!measured) {
+            return;
+        }
+        if (status == SKIPPED) {
+            skipped.incrementAndGet();
+        } else {
+            stats.get(operation).record(System.nanoTime() - scheduled, status);
+        }
+    }
+
+    private int perform(Operation operation) {
+        SeededUser user = users.get(ThreadLocalRandom.current().nextInt(users.size()));
+        switch (operation) {
+            case LOGIN:
+                LoginDto login = new LoginDto();
+                login.setCorreo(user.correo);
+                login.setContrasena(CONTRASENA);
+                return api.call(HttpMethod.POST, "/api/auth/login", login, null);
+            case REGISTRO:
+                SignUpDto signUp = new SignUpDto();
+                signUp.setName("Registro de carga");
+                signUp.setCorreo(correo("registro", registrations.incrementAndGet()));
+                signUp.setContrasena(CONTRASENA);
+                return api.call(HttpMethod.POST, "/api/auth/registro", signUp, null);
+            case GET_BY_ID:
+                return api.call(HttpMethod.GET, "/users/" + user.id, null, token);
+            case LIST:
+                return api.call(HttpMethod.GET, "/users?size=50", null, token);
+            case PUT:
+                // Mismo correo y sin contraseña: el usuario sigue pudiendo iniciar sesión
+                UserCreateUpdateDto replacement = user("Carga " + user.index + " (PUT)", user.correo, false);
+                replacement.setEstaActivo(true);
+                return api.call(HttpMethod.PUT, "/users/" + user.id, replacement, token);
+            case PATCH:
+                UserCreateUpdateDto changes = new UserCreateUpdateDto();
+                changes.setNombre("Carga " + user.index + " (PATCH)");
+                return api.call(HttpMethod.PATCH, "/users/" + user.id, changes, token);
+            case DELETE:
+                UUID id = deletable.poll();
+                return id == null ? SKIPPED : api.call(HttpMethod.DELETE, "/users/" + id, null, token);
+            default:
+                throw new IllegalStateException("Operación sin implementar: " + operation);
+        }
+    }
+
+    private String correo(String prefix, int index) {
+        return prefix + "-" + runId + "-" + index + "@load.test";
+    }
+
+    private static UserCreateUpdateDto user(String nombre, String correo, boolean withPassword) {
+        UserCreateUpdateDto user = new UserCreateUpdateDto();
+        user.setNombre(nombre);
+        user.setCorreo(correo);
+        if (withPassword) {
+            user.setContrasena(CONTRASENA);
+        }
+        user.setTelefonos(Arrays.asList(phone("1234567"), phone("7654321")));
+        return user;
+    }
+
+    private static PhoneDto phone(String numero) {
+        PhoneDto phone = new PhoneDto();
+        phone.setNumero(numero);
+        phone.setCodigoCiudad("1");
+        phone.setCodigoPais("57");
+        return phone;
+    }
+
+    private static final class SeededUser {
+        private final UUID id;
+        private final String correo;
+        private final int index;
+
+        private SeededUser(UUID id, String correo, int index) {
+            this.id = id;
+            this.correo = correo;
+            this.index = index;
+        }
+    }
+
+    private static final class ExcludeTestConfigurations extends TypeExcludeFilter {
+        @Override
+        public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+            return metadataReader.getAnnotationMetadata().hasAnnotation(TestConfiguration.class.getName());
+        }
+    }
+}
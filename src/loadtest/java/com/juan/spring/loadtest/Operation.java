@@ -0,0 +1,40 @@
+package com.juan.spring.loadtest;
+
+/**
+ * Operaciones de la mezcla de carga. La clave es la que se usa en {@code loadtest.mix} y en los reportes.
+ */
+enum Operation {
+
+    LOGIN("login", "POST /api/auth/login"),
+    REGISTRO("registro", "POST /api/auth/registro"),
+    GET_BY_ID("getById", "GET /users/{id}"),
+    LIST("list", "GET /users"),
+    PUT("put", "PUT /users/{id}"),
+    PATCH("patch", "PATCH /users/{id}"),
+    DELETE("delete", "DELETE /users/{id}");
+
+    private final String key;
+    private final String endpoint;
+
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Operación desconocida en loadtest.mix: " + key);
+    }
+}
@@ -2,11 +2,23 @@ package com.juan.spring;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import com.juan.spring.config.JwtProperties;
 
-@SpringBootApplication
+// R2DBC solo lo usa la API reactiva de lectura (perfil Maven reactive), que corre en otro proceso
+@SpringBootApplication(exclude = {
+	R2dbcAutoConfiguration.class,
+	R2dbcDataAutoConfiguration.class,
+	R2dbcRepositoriesAutoConfiguration.class,
+	R2dbcTransactionManagerAutoConfiguration.class
+})
 @EnableConfigurationProperties(JwtProperties.class)
+@EnableScheduling
 public class Application {
 
 	public static void main(String[] args) {
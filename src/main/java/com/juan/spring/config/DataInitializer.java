@@ -18,6 +18,11 @@ public class DataInitializer implements CommandLineRunner {
 
     @Override
     public void run(String... args) throws Exception {
+        // La base ya tiene datos (por ejemplo, otro contexto sobre la misma base en memoria)
+        if (userRepository.count() > 0) {
+            return;
+        }
+
         // Crear usuarios de ejemplo
         User user1 = new User();
         user1.setNombre("Juan Pérez");
@@ -0,0 +1,43 @@
+package com.juan.spring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.users.email-filter")
+public class EmailFilterProperties {
+    // Cantidad de correos para la que se dimensiona el filtro
+    private int expectedInsertions = 100_000;
+
+    // Probabilidad de falso positivo con esa cantidad de correos
+    private double falsePositiveRate = 0.01;
+
+    // Cada cuánto se reconstruye desde la base, descartando correos que ya no existen
+    private Duration rebuildInterval = Duration.ofHours(1);
+
+    public int getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public void setExpectedInsertions(int expectedInsertions) {
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public Duration getRebuildInterval() {
+        return rebuildInterval;
+    }
+
+    public void setRebuildInterval(Duration rebuildInterval) {
+        this.rebuildInterval = rebuildInterval;
+    }
+}
@@ -0,0 +1,98 @@
+package com.juan.spring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.endpoints.executors")
+public class EndpointExecutorProperties {
+    // Lecturas de usuarios: GET /users y GET /users/{id}
+    private Pool reads = new Pool(6, 100, Duration.ofSeconds(5));
+
+    // Alta, importación, actualización y borrado de usuarios
+    private Pool writes = new Pool(3, 50, Duration.ofSeconds(30));
+
+    // Login y registro; el hash de la contraseña corre además en el pool de BCrypt
+    private Pool auth = new Pool(4, 64, Duration.ofSeconds(5));
+
+    public Pool getReads() {
+        return reads;
+    }
+
+    public void setReads(Pool reads) {
+        this.reads = reads;
+    }
+
+    public Pool getWrites() {
+        return writes;
+    }
+
+    public void setWrites(Pool writes) {
+        this.writes = writes;
+    }
+
+    public Pool getAuth() {
+        return auth;
+    }
+
+    public void setAuth(Pool auth) {
+        this.auth = auth;
+    }
+
+    public static class Pool {
+        // Hilos del pool; las peticiones de esta clase nunca ocupan más hilos que estos
+        private int threads;
+
+        // Peticiones que pueden esperar en cola antes de rechazar nuevas con 503
+        private int queueCapacity;
+
+        // Tiempo máximo de la petición (cola + ejecución): 503 si no empezó, 504 si ya estaba en ejecución
+        private Duration timeout;
+
+        // Valor del header Retry-After en las respuestas 503 (las 504 no lo llevan)
+        private int retryAfterSeconds = 1;
+
+        public Pool() {
+        }
+
+        public Pool(int threads, int queueCapacity, Duration timeout) {
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+            this.timeout = timeout;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(int retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+}
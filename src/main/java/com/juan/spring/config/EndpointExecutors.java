@@ -0,0 +1,182 @@
+package com.juan.spring.config;
+
+import com.juan.spring.dto.ErrorMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pools acotados por clase de endpoint (lecturas, escrituras y autenticación). Los controladores
+ * entregan su trabajo a estos pools y liberan el hilo de Tomcat, así una ráfaga en una clase solo
+ * llena su propia cola: cuando está llena, o la petición supera su timeout sin haber empezado, se responde 503
+ * con Retry-After. Una petición que ya estaba en ejecución recibe 504 sin Retry-After, porque puede completarse.
+ */
+@Component
+public class EndpointExecutors implements DisposableBean {
+
+    private static final String METRIC_PREFIX = "endpoint.executor";
+
+    public enum Workload {
+        READS("reads"),
+        WRITES("writes"),
+        AUTH("auth");
+
+        private final String poolName;
+
+        Workload(String poolName) {
+            this.poolName = poolName;
+        }
+
+        public String getPoolName() {
+            return poolName;
+        }
+    }
+
+    private final Map<Workload, WorkloadPool> pools = new EnumMap<>(Workload.class);
+
+    public EndpointExecutors(EndpointExecutorProperties properties, MeterRegistry meterRegistry) {
+        pools.put(Workload.READS, new WorkloadPool(Workload.READS, properties.getReads(), meterRegistry));
+        pools.put(Workload.WRITES, new WorkloadPool(Workload.WRITES, properties.getWrites(), meterRegistry));
+        pools.put(Workload.AUTH, new WorkloadPool(Workload.AUTH, properties.getAuth(), meterRegistry));
+    }
+
+    /**
+     * Ejecuta el handler en el pool de la clase indicada. Las excepciones del handler se entregan
+     * a los {@code @ExceptionHandler} igual que en un controlador síncrono.
+     */
+    public DeferredResult<ResponseEntity<?>> submit(Workload workload, Supplier<ResponseEntity<?>> handler) {
+        return pools.get(workload).submit(handler);
+    }
+
+    // Respuesta ya resuelta en el hilo de la petición, por ejemplo un cuerpo que no se pudo leer
+    public static DeferredResult<ResponseEntity<?>> completed(ResponseEntity<?> response) {
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>();
+        result.setResult(response);
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        pools.values().forEach(pool -> pool.executor.shutdown());
+    }
+
+    private static final class WorkloadPool {
+        private final String name;
+        private final ThreadPoolExecutor executor;
+        private final long timeoutMillis;
+        private final int retryAfterSeconds;
+
+        private final Timer waitTimer;
+        private final Counter rejectedCounter;
+        private final Counter queuedTimeoutCounter;
+        private final Counter runningTimeoutCounter;
+
+        private WorkloadPool(Workload workload, EndpointExecutorProperties.Pool properties, MeterRegistry meterRegistry) {
+            this.name = workload.getPoolName();
+            this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(properties.getQueueCapacity()), new WorkloadThreadFactory(name),
+                    new ThreadPoolExecutor.AbortPolicy());
+            this.timeoutMillis = properties.getTimeout().toMillis();
+            this.retryAfterSeconds = properties.getRetryAfterSeconds();
+
+            Tags tags = Tags.of("pool", name);
+            // executor.active, executor.queued, executor.completed, etc. con name="endpoints.<pool>"
+            new ExecutorServiceMetrics(executor, "endpoints." + name, tags).bindTo(meterRegistry);
+            this.waitTimer = Timer.builder(METRIC_PREFIX + ".wait").tags(tags)
+                    .description("Tiempo en cola antes de atender la petición").register(meterRegistry);
+            this.rejectedCounter = Counter.builder(METRIC_PREFIX + ".rejected").tags(tags)
+                    .description("Peticiones rechazadas por cola llena").register(meterRegistry);
+            this.queuedTimeoutCounter = Counter.builder(METRIC_PREFIX + ".timeouts").tags(tags.and("stage", "queued"))
+                    .description("Peticiones que superaron el timeout del pool").register(meterRegistry);
+            this.runningTimeoutCounter = Counter.builder(METRIC_PREFIX + ".timeouts").tags(tags.and("stage", "running"))
+                    .description("Peticiones que superaron el timeout del pool").register(meterRegistry);
+        }
+
+        private DeferredResult<ResponseEntity<?>> submit(Supplier<ResponseEntity<?>> handler) {
+            DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(timeoutMillis);
+            // El hilo del pool y el timeout compiten por la tarea: solo uno de los dos la saca de la cola
+            AtomicBoolean claimed = new AtomicBoolean();
+            long submittedAt = System.nanoTime();
+            // El contexto de seguridad de la petición se propaga al hilo del pool y se limpia al terminar
+            Runnable task = new DelegatingSecurityContextRunnable(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                if (!claimed.compareAndSet(false, true)) {
+                    return;
+                }
+                try {
+                    result.setResult(handler.get());
+                } catch (RuntimeException | Error e) {
+                    result.setErrorResult(e);
+                }
+            });
+
+            Future<?> future;
+            try {
+                future = executor.submit(task);
+            } catch (RejectedExecutionException e) {
+                rejectedCounter.increment();
+                result.setResult(serviceUnavailable("El servicio está saturado, intente nuevamente más tarde"));
+                return result;
+            }
+            result.onTimeout(() -> {
+                if (claimed.compareAndSet(false, true)) {
+                    // Seguía en cola: no se ejecutará, así que reintentar es seguro
+                    queuedTimeoutCounter.increment();
+                    future.cancel(false);
+                    result.setResult(serviceUnavailable("La solicitud superó el tiempo máximo de espera, intente nuevamente más tarde"));
+                } else {
+                    // Ya empezó y termina sin interrupción (una escritura puede confirmarse): sin Retry-After,
+                    // para que el cliente consulte el estado en lugar de repetir la operación
+                    runningTimeoutCounter.increment();
+                    result.setResult(ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                            .body(new ErrorMessage("La solicitud superó el tiempo máximo de respuesta y puede haberse completado; "
+                                    + "verifique el resultado antes de reintentar")));
+                }
+            });
+            return result;
+        }
+
+        private ResponseEntity<ErrorMessage> serviceUnavailable(String message) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(new ErrorMessage(message));
+        }
+    }
+
+    private static final class WorkloadThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        private WorkloadThreadFactory(String poolName) {
+            this.prefix = "endpoints-" + poolName + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -3,11 +3,44 @@ package com.juan.spring.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Component
 @ConfigurationProperties(prefix = "app")
 public class JwtProperties {
+    // HS512 (clave secreta compartida) o ES256 (par de claves; la pública se publica en /.well-known/jwks.json)
+    private String jwtAlgorithm = "HS512";
+    // Clave única en Base64; se ignora si se configuran jwt-keys o jwt-keystore
     private String jwtSecret;
-    private int jwtExpirationMilliseconds;
+    // Vigencia de los tokens emitidos; corta porque se renuevan con un refresh token. 0 o menos emite tokens sin "exp"
+    private int jwtExpirationMilliseconds = 900000;
+    // Tolerancia a la diferencia de reloj entre réplicas al validar "exp" e "iat"
+    private Duration jwtClockSkew = Duration.ofSeconds(30);
+
+    // Anillo de claves HS512 en Base64 por kid; los tokens se firman con jwt-active-kid y se validan con todas
+    private Map<String, String> jwtKeys = new LinkedHashMap<>();
+    private String jwtActiveKid;
+
+    // Keystore PKCS12 con claves secretas (alias = kid); tiene prioridad sobre jwt-keys y se relee si cambia
+    private String jwtKeystore;
+    private String jwtKeystorePassword;
+    private Duration jwtKeysReloadInterval = Duration.ofMinutes(1);
+    // Tiempo que otros servicios pueden cachear el JWKS; conviene que sea menor que el intervalo entre
+    // agregar una clave al keystore y retirar la anterior
+    private Duration jwtJwksMaxAge = Duration.ofMinutes(5);
+
+    // Si es true los tokens incluyen id, roles y versión, y el filtro no consulta la base de datos
+    private boolean jwtSelfContained;
+
+    public String getJwtAlgorithm() {
+        return jwtAlgorithm;
+    }
+
+    public void setJwtAlgorithm(String jwtAlgorithm) {
+        this.jwtAlgorithm = jwtAlgorithm;
+    }
 
     public String getJwtSecret() {
         return jwtSecret;
@@ -24,4 +57,68 @@ public class JwtProperties {
     public void setJwtExpirationMilliseconds(int jwtExpirationMilliseconds) {
         this.jwtExpirationMilliseconds = jwtExpirationMilliseconds;
     }
+
+    public Duration getJwtClockSkew() {
+        return jwtClockSkew;
+    }
+
+    public void setJwtClockSkew(Duration jwtClockSkew) {
+        this.jwtClockSkew = jwtClockSkew;
+    }
+
+    public Map<String, String> getJwtKeys() {
+        return jwtKeys;
+    }
+
+    public void setJwtKeys(Map<String, String> jwtKeys) {
+        this.jwtKeys = jwtKeys;
+    }
+
+    public String getJwtActiveKid() {
+        return jwtActiveKid;
+    }
+
+    public void setJwtActiveKid(String jwtActiveKid) {
+        this.jwtActiveKid = jwtActiveKid;
+    }
+
+    public String getJwtKeystore() {
+        return jwtKeystore;
+    }
+
+    public void setJwtKeystore(String jwtKeystore) {
+        this.jwtKeystore = jwtKeystore;
+    }
+
+    public String getJwtKeystorePassword() {
+        return jwtKeystorePassword;
+    }
+
+    public void setJwtKeystorePassword(String jwtKeystorePassword) {
+        this.jwtKeystorePassword = jwtKeystorePassword;
+    }
+
+    public Duration getJwtKeysReloadInterval() {
+        return jwtKeysReloadInterval;
+    }
+
+    public void setJwtKeysReloadInterval(Duration jwtKeysReloadInterval) {
+        this.jwtKeysReloadInterval = jwtKeysReloadInterval;
+    }
+
+    public Duration getJwtJwksMaxAge() {
+        return jwtJwksMaxAge;
+    }
+
+    public void setJwtJwksMaxAge(Duration jwtJwksMaxAge) {
+        this.jwtJwksMaxAge = jwtJwksMaxAge;
+    }
+
+    public boolean isJwtSelfContained() {
+        return jwtSelfContained;
+    }
+
+    public void setJwtSelfContained(boolean jwtSelfContained) {
+        this.jwtSelfContained = jwtSelfContained;
+    }
 } 
\ No newline at end of file
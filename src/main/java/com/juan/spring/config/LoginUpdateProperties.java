@@ -0,0 +1,32 @@
+package com.juan.spring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.security.login-updates")
+public class LoginUpdateProperties {
+    // Intervalo entre escrituras del último login y token acumulados en memoria
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    // Cantidad máxima de filas por lote JDBC
+    private int batchSize = 500;
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
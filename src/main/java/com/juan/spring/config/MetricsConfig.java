@@ -0,0 +1,20 @@
+package com.juan.spring.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // Nombres de los timers de servicios; son estables porque los usan los dashboards de SLO
+    public static final String USER_SERVICE_TIMER = "users.service";
+    public static final String AUTH_SERVICE_TIMER = "auth.service";
+
+    // Habilita @Timed en los servicios (tags class y method)
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,41 @@
+package com.juan.spring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "app.users.pagination")
+public class PaginationProperties {
+    // Tamaño de página usado cuando el cliente no envía "size"
+    private int defaultSize = 50;
+
+    // Tamaño máximo de página permitido, sin importar lo que pida el cliente
+    private int maxSize = 500;
+
+    // Máximo de usuarios retornados cuando se solicita el listado sin paginar
+    private int unpagedMax = 1000;
+
+    public int getDefaultSize() {
+        return defaultSize;
+    }
+
+    public void setDefaultSize(int defaultSize) {
+        this.defaultSize = defaultSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int getUnpagedMax() {
+        return unpagedMax;
+    }
+
+    public void setUnpagedMax(int unpagedMax) {
+        this.unpagedMax = unpagedMax;
+    }
+}
@@ -0,0 +1,65 @@
+package com.juan.spring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.security.password-hashing")
+public class PasswordHashingProperties {
+    // Factor de costo de BCrypt (log2 de las rondas)
+    private int bcryptStrength = 10;
+
+    // Hilos dedicados a BCrypt; 0 usa la cantidad de CPUs disponibles
+    private int threads = 0;
+
+    // Operaciones de hash que pueden esperar en cola antes de rechazar nuevas
+    private int queueCapacity = 64;
+
+    // Tiempo máximo que una petición espera su hash (cola + cálculo)
+    private Duration maxWait = Duration.ofSeconds(2);
+
+    // Valor del header Retry-After cuando se rechaza por saturación
+    private int retryAfterSeconds = 1;
+
+    public int getBcryptStrength() {
+        return bcryptStrength;
+    }
+
+    public void setBcryptStrength(int bcryptStrength) {
+        this.bcryptStrength = bcryptStrength;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
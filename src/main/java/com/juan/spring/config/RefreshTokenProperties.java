@@ -0,0 +1,32 @@
+package com.juan.spring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.security.refresh-tokens")
+public class RefreshTokenProperties {
+    // Vigencia de cada refresh token; cada rotación emite uno nuevo con la vigencia completa
+    private Duration ttl = Duration.ofDays(30);
+
+    // Intervalo entre borrados de los refresh tokens vencidos
+    private Duration cleanupInterval = Duration.ofHours(1);
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getCleanupInterval() {
+        return cleanupInterval;
+    }
+
+    public void setCleanupInterval(Duration cleanupInterval) {
+        this.cleanupInterval = cleanupInterval;
+    }
+}
@@ -0,0 +1,119 @@
+package com.juan.spring.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juan.spring.dto.ErrorMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limita las peticiones en curso cuando se atienden en hilos virtuales. Las que no consiguen cupo dentro de
+ * {@code acquire-timeout} reciben 503 con Retry-After en lugar de esperar una conexión del pool. Una petición
+ * asíncrona conserva su cupo hasta que el contenedor la completa, también mientras espera en un pool de endpoints.
+ */
+public class RequestConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String METRIC_PREFIX = "http.server.admission";
+
+    private final VirtualThreadProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Semaphore permits;
+    private final Counter rejectedCounter;
+
+    public RequestConcurrencyLimitFilter(VirtualThreadProperties properties, ObjectMapper objectMapper,
+                                         MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.permits = new Semaphore(properties.getMaxConcurrentRequests());
+        this.rejectedCounter = Counter.builder(METRIC_PREFIX + ".rejected")
+            .description("Peticiones rechazadas por superar el límite de concurrencia")
+            .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", permits,
+                p -> properties.getMaxConcurrentRequests() - p.availablePermits())
+            .description("Peticiones en curso")
+            .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(properties.getAcquireTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejectedCounter.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(properties.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            objectMapper.writeValue(response.getOutputStream(),
+                new ErrorMessage("El servidor está saturado, intente de nuevo más tarde"));
+            return;
+        }
+        Permit permit = new Permit();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Un controlador con DeferredResult sigue en curso en su pool después de liberar el hilo de Tomcat:
+            // el cupo se devuelve cuando termina la petición asíncrona, no al salir del filtro
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(permit);
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    // onTimeout y onError van seguidos de onComplete: el cupo se libera una sola vez
+    private final class Permit implements AsyncListener {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.juan.spring.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Caché de segundo nivel de Hibernate sobre JCache (Caffeine). Cada región se crea aquí con su tamaño y TTL
+ * de {@code app.jpa.second-level-cache}; Hibernate está configurado para fallar si una entidad usa una región
+ * que no se creó, en lugar de crearla sin límites.
+ *
+ * <p>Las escrituras por JPA mantienen la caché al día. Las que van por JDBC directo (el UPDATE del último
+ * login) deben desalojar las entidades que modifican.</p>
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String USERS_REGION = "usuarios";
+    public static final String PHONES_REGION = "telefonos";
+    public static final String USER_PHONES_REGION = "usuarios.telefonos";
+
+    // Un CacheManager por contexto: los tests levantan varios contextos en la misma JVM
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(SecondLevelCacheProperties properties) {
+        CaffeineCachingProvider provider = new CaffeineCachingProvider();
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("hibernate-l2-" + UUID.randomUUID()), provider.getDefaultClassLoader(), new Properties());
+        createRegion(cacheManager, USERS_REGION, properties.getUsuarios());
+        createRegion(cacheManager, PHONES_REGION, properties.getTelefonos());
+        createRegion(cacheManager, USER_PHONES_REGION, properties.getUsuariosTelefonos());
+        createRegion(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, properties.getConsultas());
+        // Las marcas de última escritura por tabla invalidan las consultas cacheadas: no deben expirar ni descartarse
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<Object, Object>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, SecondLevelCacheProperties.Region region) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(region.getMaxSize()));
+        configuration.setExpireAfterWrite(OptionalLong.of(region.getTtl().toNanos()));
+        cacheManager.createCache(name, configuration);
+    }
+}
@@ -0,0 +1,86 @@
+package com.juan.spring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.jpa.second-level-cache")
+public class SecondLevelCacheProperties {
+    // Entidades User por ID
+    private Region usuarios = new Region(10000, Duration.ofMinutes(10));
+
+    // Entidades Phone por ID
+    private Region telefonos = new Region(50000, Duration.ofMinutes(10));
+
+    // IDs de los teléfonos de cada usuario (colección User.telefonos)
+    private Region usuariosTelefonos = new Region(10000, Duration.ofMinutes(10));
+
+    // Resultados de consultas cacheables (IDs), por ejemplo la búsqueda de usuario por correo
+    private Region consultas = new Region(10000, Duration.ofMinutes(5));
+
+    public Region getUsuarios() {
+        return usuarios;
+    }
+
+    public void setUsuarios(Region usuarios) {
+        this.usuarios = usuarios;
+    }
+
+    public Region getTelefonos() {
+        return telefonos;
+    }
+
+    public void setTelefonos(Region telefonos) {
+        this.telefonos = telefonos;
+    }
+
+    public Region getUsuariosTelefonos() {
+        return usuariosTelefonos;
+    }
+
+    public void setUsuariosTelefonos(Region usuariosTelefonos) {
+        this.usuariosTelefonos = usuariosTelefonos;
+    }
+
+    public Region getConsultas() {
+        return consultas;
+    }
+
+    public void setConsultas(Region consultas) {
+        this.consultas = consultas;
+    }
+
+    public static class Region {
+        // Entradas máximas de la región; al superarlas Caffeine descarta las menos usadas
+        private long maxSize;
+
+        // Tiempo máximo de una entrada desde que se escribió, aunque nadie la invalide
+        private Duration ttl;
+
+        public Region() {
+        }
+
+        public Region(long maxSize, Duration ttl) {
+            this.maxSize = maxSize;
+            this.ttl = ttl;
+        }
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.juan.spring.config;
 
+import com.juan.spring.repositories.UserRepository;
+import com.juan.spring.security.BoundedPasswordEncoder;
 import com.juan.spring.security.CustomUserDetailsService;
 import com.juan.spring.security.JwtAuthenticationFilter;
+import com.juan.spring.security.TokenVersionStore;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,6 +20,13 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.header.HeaderWriter;
+import org.springframework.security.web.header.writers.CacheControlHeadersWriter;
+import org.springframework.security.web.header.writers.DelegatingRequestMatcherHeaderWriter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.NegatedRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 @Configuration
 @EnableWebSecurity
@@ -25,14 +36,28 @@ public class SecurityConfig {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private PasswordHashingProperties passwordHashingProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
         return new JwtAuthenticationFilter();
     }
 
+    // La revocación de tokens autocontenidos se guarda en usuarios.token_version y la comparten todas las instancias
     @Bean
+    public TokenVersionStore tokenVersionStore(UserRepository userRepository) {
+        return userRepository::findTokenVersionById;
+    }
+
+    // BCrypt corre en un pool acotado propio para no bloquear los hilos de Tomcat
+    @Bean(destroyMethod = "shutdown")
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(10);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(passwordHashingProperties.getBcryptStrength()),
+            passwordHashingProperties, meterRegistry);
     }
 
     @Bean
@@ -71,16 +96,35 @@ public class SecurityConfig {
                         .permitAll()
                         // H2 Console
                         .antMatchers("/h2-console/**").permitAll()
-                        // Auth endpoints
-                        .antMatchers("/api/auth/**").permitAll()
+                        // Health y scrape de Prometheus; el resto de actuator requiere token
+                        .antMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
+                        // Auth endpoints y claves públicas de firma
+                        .antMatchers("/api/auth/**", "/.well-known/jwks.json").permitAll()
                         // User creation
                         .antMatchers(HttpMethod.POST, "/users").permitAll()
                         // Require authentication for all other requests
                         .anyRequest().authenticated())
-                .headers(headers -> headers.frameOptions().disable())
+                .headers(headers -> headers
+                        .frameOptions().disable()
+                        .cacheControl().disable()
+                        .addHeaderWriter(cacheControlExceptCacheableReads()))
                 .authenticationProvider(authenticationProvider())
                 .addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
+
+    /**
+     * Cabeceras no-store de Spring Security para todo salvo las lecturas que definen su propio Cache-Control:
+     * {@code GET /users} y {@code GET /users/{id}} (ETag con {@code no-cache, private}, para revalidar con 304)
+     * y el JWKS público.
+     */
+    public static HeaderWriter cacheControlExceptCacheableReads() {
+        RequestMatcher cacheableReads = new OrRequestMatcher(
+                new AntPathRequestMatcher("/users", HttpMethod.GET.name()),
+                new AntPathRequestMatcher("/users/{id:[0-9a-fA-F-]{36}}", HttpMethod.GET.name()),
+                new AntPathRequestMatcher("/.well-known/jwks.json", HttpMethod.GET.name()));
+        return new DelegatingRequestMatcherHeaderWriter(new NegatedRequestMatcher(cacheableReads),
+                new CacheControlHeadersWriter());
+    }
 }
\ No newline at end of file
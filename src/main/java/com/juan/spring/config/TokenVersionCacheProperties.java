@@ -0,0 +1,32 @@
+package com.juan.spring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.security.token-version-cache")
+public class TokenVersionCacheProperties {
+    // Cantidad máxima de usuarios con su versión de token en caché
+    private long maxSize = 10_000;
+
+    // Demora máxima con la que una instancia ve la revocación hecha en otra
+    private Duration ttl = Duration.ofSeconds(5);
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+}
@@ -0,0 +1,30 @@
+package com.juan.spring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "app.users.batch")
+public class UserBatchProperties {
+    // Cantidad máxima de usuarios aceptados en una sola importación
+    private int maxSize = 10_000;
+
+    // Usuarios persistidos antes de vaciar el contexto de persistencia; conviene igualarlo a hibernate.jdbc.batch_size
+    private int flushSize = 50;
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int getFlushSize() {
+        return flushSize;
+    }
+
+    public void setFlushSize(int flushSize) {
+        this.flushSize = flushSize;
+    }
+}
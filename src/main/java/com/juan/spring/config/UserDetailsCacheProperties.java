@@ -0,0 +1,32 @@
+package com.juan.spring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.security.user-details-cache")
+public class UserDetailsCacheProperties {
+    // Cantidad máxima de usuarios en caché
+    private long maxSize = 10_000;
+
+    // Tiempo máximo que un usuario permanece en caché desde que se cargó
+    private Duration ttl = Duration.ofMinutes(5);
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+}
@@ -0,0 +1,20 @@
+package com.juan.spring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "app.users.updates")
+public class UserUpdateProperties {
+    // Intentos de un PUT o PATCH sin If-Match cuando otra escritura cambia la versión del usuario
+    // entre la lectura y el commit; con 1 el conflicto se informa directamente como 409
+    private int maxAttempts = 3;
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+}
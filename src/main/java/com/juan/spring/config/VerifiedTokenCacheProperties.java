@@ -0,0 +1,32 @@
+package com.juan.spring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.security.verified-token-cache")
+public class VerifiedTokenCacheProperties {
+    // Cantidad máxima de tokens verificados en caché
+    private long maxSize = 50_000;
+
+    // Tiempo máximo en caché; nunca supera la expiración del propio token
+    private Duration ttl = Duration.ofSeconds(60);
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+}
@@ -0,0 +1,60 @@
+package com.juan.spring.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Modo de ejecución con hilos virtuales ({@code app.threads.virtual.enabled=true}, Java 21+): Tomcat atiende cada
+ * petición en un hilo virtual y el executor de tareas de la aplicación (@Async y peticiones asíncronas de MVC)
+ * también los usa. El límite de concurrencia reemplaza al tope que antes imponían los hilos de Tomcat y cuenta
+ * cada petición hasta que termina, aunque se atienda de forma asíncrona. Los endpoints de usuarios y autenticación
+ * siguen ejecutándose en los pools de {@link EndpointExecutors}, que acotan su concurrencia en ambos modos.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.threads.virtual", name = "enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService tomcatVirtualThreadExecutor() {
+        return VirtualThreads.newThreadPerTaskExecutor("http-vt-");
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(
+            ExecutorService tomcatVirtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(tomcatVirtualThreadExecutor);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService taskVirtualThreadExecutor() {
+        return VirtualThreads.newThreadPerTaskExecutor("task-vt-");
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+        AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService taskVirtualThreadExecutor) {
+        return new TaskExecutorAdapter(taskVirtualThreadExecutor);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestConcurrencyLimitFilter> requestConcurrencyLimitFilter(
+            VirtualThreadProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RequestConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+            new RequestConcurrencyLimitFilter(properties, objectMapper, meterRegistry));
+        // Antes de seguridad y del resto de filtros: una petición rechazada no consume nada más
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,55 @@
+package com.juan.spring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.threads.virtual")
+public class VirtualThreadProperties {
+    // Atiende las peticiones de Tomcat y las tareas asíncronas en hilos virtuales (requiere Java 21+)
+    private boolean enabled = false;
+
+    // Peticiones en curso admitidas a la vez, incluidas las asíncronas que esperan en un pool de endpoints;
+    // sin el límite de hilos de Tomcat, es lo que evita que se acumulen miles de peticiones esperando
+    private int maxConcurrentRequests = 400;
+
+    // Tiempo que una petición espera un cupo antes de responder 503
+    private Duration acquireTimeout = Duration.ofMillis(500);
+
+    // Valor del header Retry-After cuando se rechaza por saturación
+    private int retryAfterSeconds = 1;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    public Duration getAcquireTimeout() {
+        return acquireTimeout;
+    }
+
+    public void setAcquireTimeout(Duration acquireTimeout) {
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -1,7 +1,10 @@
 package com.juan.spring.controllers;
 
+import com.juan.spring.config.EndpointExecutors;
+import com.juan.spring.config.EndpointExecutors.Workload;
 import com.juan.spring.dto.JwtAuthResponse;
 import com.juan.spring.dto.LoginDto;
+import com.juan.spring.dto.RefreshTokenDto;
 import com.juan.spring.dto.SignUpDto;
 import com.juan.spring.dto.ValidationErrorResponse;
 import com.juan.spring.dto.ErrorMessage;
@@ -10,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -27,6 +31,9 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private EndpointExecutors endpointExecutors;
+
     @Operation(summary = "Iniciar sesión", description = "Autentica a un usuario y retorna un token JWT")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Autenticación exitosa",
@@ -40,19 +47,21 @@ public class AuthController {
             schema = @Schema(implementation = ErrorMessage.class)))
     })
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(
+    public DeferredResult<ResponseEntity<?>> authenticateUser(
         @Parameter(description = "Credenciales de inicio de sesión", required = true)
         @RequestBody LoginDto loginDto) {
-        try {
-            JwtAuthResponse response = authService.login(loginDto);
-            return ResponseEntity.ok(response);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(new ValidationErrorResponse(e.getMessage()));
-        } catch (IllegalStateException e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                .body(new ErrorMessage(e.getMessage()));
-        }
+        return endpointExecutors.submit(Workload.AUTH, () -> {
+            try {
+                JwtAuthResponse response = authService.login(loginDto);
+                return ResponseEntity.ok(response);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ValidationErrorResponse(e.getMessage()));
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ErrorMessage(e.getMessage()));
+            }
+        });
     }
 
     @Operation(summary = "Registrar usuario", description = "Registra un nuevo usuario y retorna un token JWT")
@@ -68,18 +77,51 @@ public class AuthController {
             schema = @Schema(implementation = ErrorMessage.class)))
     })
     @PostMapping("/registro")
-    public ResponseEntity<?> registrarUsuario(
+    public DeferredResult<ResponseEntity<?>> registrarUsuario(
         @Parameter(description = "Datos de registro del usuario", required = true)
         @RequestBody SignUpDto signUpDto) {
-        try {
-            JwtAuthResponse response = authService.register(signUpDto);
-            return ResponseEntity.ok(response);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(new ValidationErrorResponse(e.getMessage()));
-        } catch (IllegalStateException e) {
-            return ResponseEntity.status(HttpStatus.CONFLICT)
-                .body(new ErrorMessage(e.getMessage()));
-        }
+        return endpointExecutors.submit(Workload.AUTH, () -> {
+            try {
+                JwtAuthResponse response = authService.register(signUpDto);
+                return ResponseEntity.ok(response);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ValidationErrorResponse(e.getMessage()));
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorMessage(e.getMessage()));
+            }
+        });
+    }
+
+    @Operation(summary = "Renovar token",
+        description = "Cambia un refresh token por un token JWT y un refresh token nuevos, sin verificar la contraseña")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Tokens renovados",
+            content = @Content(mediaType = "application/json",
+            schema = @Schema(implementation = JwtAuthResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Falta el refresh token",
+            content = @Content(mediaType = "application/json",
+            schema = @Schema(implementation = ValidationErrorResponse.class))),
+        @ApiResponse(responseCode = "401", description = "Refresh token inválido, expirado o reutilizado",
+            content = @Content(mediaType = "application/json",
+            schema = @Schema(implementation = ErrorMessage.class)))
+    })
+    @PostMapping("/refresh")
+    public DeferredResult<ResponseEntity<?>> renovarToken(
+        @Parameter(description = "Refresh token recibido al iniciar sesión o en la última renovación", required = true)
+        @RequestBody RefreshTokenDto refreshTokenDto) {
+        return endpointExecutors.submit(Workload.AUTH, () -> {
+            try {
+                JwtAuthResponse response = authService.refresh(refreshTokenDto);
+                return ResponseEntity.ok(response);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ValidationErrorResponse(e.getMessage()));
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ErrorMessage(e.getMessage()));
+            }
+        });
     }
 }
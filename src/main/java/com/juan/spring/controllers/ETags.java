@@ -0,0 +1,62 @@
+package com.juan.spring.controllers;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Construcción y comparación de ETags para las respuestas de usuarios.
+ *
+ * <p>La comparación de If-None-Match es débil (RFC 7232 §3.2): ignora el prefijo {@code W/}
+ * y acepta {@code *} o una lista de valores separados por comas. If-Match usa comparación fuerte.</p>
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(Object value) {
+        return "\"" + value + "\"";
+    }
+
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String expected = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if ("*".equals(value) || stripWeak(value).equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Versiones aceptadas por If-Match, o null si no hay precondición (cabecera ausente o {@code *}).
+     * La precondición se cumple si cualquier ETag fuerte de la lista coincide (RFC 9110 §13.1.1); los débiles
+     * o mal formados se descartan, así que si no queda ninguno el conjunto está vacío y el servicio responde 412.
+     */
+    static Set<Long> ifMatchVersions(String ifMatch) {
+        if (ifMatch == null || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        for (String candidate : ifMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.length() < 3 || !value.startsWith("\"") || !value.endsWith("\"")) {
+                continue;
+            }
+            try {
+                versions.add(Long.valueOf(value.substring(1, value.length() - 1)));
+            } catch (NumberFormatException e) {
+                // No es una versión emitida por esta API: nunca coincide
+            }
+        }
+        return versions;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
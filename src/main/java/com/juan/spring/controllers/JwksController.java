@@ -0,0 +1,44 @@
+package com.juan.spring.controllers;
+
+import com.juan.spring.config.JwtProperties;
+import com.juan.spring.security.JwkSet;
+import com.juan.spring.security.JwtTokenProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@Tag(name = "Autenticación", description = "API para la autenticación y registro de usuarios")
+public class JwksController {
+
+    public static final String JWK_SET_CONTENT_TYPE = "application/jwk-set+json";
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private JwtProperties jwtProperties;
+
+    @Operation(summary = "Claves públicas de firma", description = "JWK Set con las claves públicas vigentes (activa y "
+        + "de verificación) para validar los tokens sin consultar a este servicio. Vacío si se firma con HS512")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "JWK Set")
+    })
+    @GetMapping(value = "/.well-known/jwks.json", produces = {JWK_SET_CONTENT_TYPE, "application/json"})
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        // Un servicio que recibe un kid desconocido debe volver a pedir el documento aunque no haya vencido
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(jwtProperties.getJwtJwksMaxAge().getSeconds(), TimeUnit.SECONDS).cachePublic())
+            .body(JwkSet.of(tokenProvider.obtenerClavesPublicas()));
+    }
+}
@@ -0,0 +1,48 @@
+package com.juan.spring.controllers;
+
+import com.juan.spring.dto.ErrorMessage;
+import com.juan.spring.security.PasswordHashingRejectedException;
+import com.juan.spring.services.UserVersionMismatchException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class RestExceptionHandler {
+
+    // Pool de hashing saturado: se rechaza rápido para que el cliente reintente
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<ErrorMessage> handlePasswordHashingRejected(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+            .body(new ErrorMessage(e.getMessage()));
+    }
+
+    // Restricción única violada al escribir (por ejemplo, dos altas concurrentes con el mismo correo)
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorMessage> handleDataIntegrityViolation(DataIntegrityViolationException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body(new ErrorMessage("La operación entra en conflicto con un registro existente, por ejemplo un correo ya registrado"));
+    }
+
+    // If-Match con una versión que ya no es la actual; se envía el ETag vigente para releer y reintentar
+    @ExceptionHandler(UserVersionMismatchException.class)
+    public ResponseEntity<ErrorMessage> handleUserVersionMismatch(UserVersionMismatchException e) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.PRECONDITION_FAILED);
+        if (e.getCurrentVersion() != null) {
+            response.eTag(ETags.of(e.getCurrentVersion()));
+        }
+        return response.body(new ErrorMessage(e.getMessage()));
+    }
+
+    // Otra escritura cambió la versión del usuario entre la lectura y el flush, y se agotaron los reintentos
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorMessage> handleOptimisticLockingFailure(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body(new ErrorMessage("El usuario fue modificado por otra operación; vuelva a leerlo y reintente"));
+    }
+}
@@ -1,19 +1,42 @@
 package com.juan.spring.controllers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.juan.spring.config.UserBatchProperties;
+import com.juan.spring.config.EndpointExecutors;
+import com.juan.spring.config.EndpointExecutors.Workload;
 import com.juan.spring.services.UserService;
 import com.juan.spring.dto.ErrorMessage;
+import com.juan.spring.dto.UserBatchResultDto;
 import com.juan.spring.dto.UserDto;
 import com.juan.spring.dto.UserCreateUpdateDto;
+import com.juan.spring.dto.UserPageDto;
 import com.juan.spring.dto.ValidationErrorResponse;
 import com.juan.spring.entities.User;
 
@@ -35,27 +58,106 @@ public class UserController {
     @Autowired
     private UserService userService;
 
-    @Operation(summary = "Obtener todos los usuarios", description = "Retorna una lista de todos los usuarios registrados")
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserBatchProperties userBatchProperties;
+
+    @Autowired
+    private EndpointExecutors endpointExecutors;
+
+    @Operation(summary = "Obtener usuarios", description = "Retorna los usuarios registrados paginados por cursor. "
+        + "Con unpaged=true retorna la lista completa, limitada a app.users.pagination.unpaged-max")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de usuarios encontrada",
+        @ApiResponse(responseCode = "200", description = "Página de usuarios encontrada",
             content = @Content(mediaType = "application/json",
-            schema = @Schema(implementation = UserDto.class))),
+            schema = @Schema(implementation = UserPageDto.class))),
+        @ApiResponse(responseCode = "304", description = "La página no cambió desde el ETag enviado"),
+        @ApiResponse(responseCode = "400", description = "Cursor o tamaño de página inválidos",
+            content = @Content(mediaType = "application/json",
+            schema = @Schema(implementation = ValidationErrorResponse.class))),
         @ApiResponse(responseCode = "404", description = "No se encontraron usuarios",
             content = @Content(mediaType = "application/json",
             schema = @Schema(implementation = ErrorMessage.class)))
     })
     @GetMapping
-    public ResponseEntity<?> getAllUsers() {
-        List<UserDto> users = userService.getAllUsers().stream()
-            .map(userService::convertToDto)
-            .collect(Collectors.toList());
-            
-        if (users.isEmpty()) {
-            return ResponseEntity
-                .status(HttpStatus.NOT_FOUND)
-                .body(new ErrorMessage("No se encontraron usuarios registrados"));
+    public DeferredResult<ResponseEntity<?>> getAllUsers(
+        @Parameter(description = "Cursor retornado en la página anterior")
+        @RequestParam(required = false) String cursor,
+        @Parameter(description = "Cantidad de usuarios por página")
+        @RequestParam(required = false) Integer size,
+        @Parameter(description = "Retorna la lista sin paginar (con límite máximo)")
+        @RequestParam(defaultValue = "false") boolean unpaged,
+        @Parameter(description = "ETag de la página obtenida previamente")
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return endpointExecutors.submit(Workload.READS, () -> {
+            if (unpaged) {
+                List<UserDto> users = userService.getAllUsers().stream()
+                    .map(userService::convertToDto)
+                    .collect(Collectors.toList());
+
+                if (users.isEmpty()) {
+                    return ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(new ErrorMessage("No se encontraron usuarios registrados"));
+                }
+                return ResponseEntity.ok(users);
+            }
+
+            try {
+                // La huella se calcula antes de cargar la página: si la página cambia entre ambas
+                // consultas, el cliente recibe datos nuevos con un ETag viejo y revalida en la siguiente
+                String etag = ETags.of(userService.getUsersPageVersion(cursor, size));
+                if (ETags.matches(ifNoneMatch, etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                }
+
+                UserPageDto page = userService.getUsersPage(cursor, size);
+                if (page.getUsuarios().isEmpty() && cursor == null) {
+                    return ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(new ErrorMessage("No se encontraron usuarios registrados"));
+                }
+                return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(page);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ValidationErrorResponse(e.getMessage()));
+            }
+        });
+    }
+
+    @Operation(summary = "Exportar usuarios", description = "Retorna todos los usuarios como JSON delimitado por saltos de línea (NDJSON), "
+        + "escribiendo cada registro a medida que se lee de la base de datos")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Exportación en curso",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+            schema = @Schema(implementation = UserDto.class)))
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        // Sin separador raíz (por defecto un espacio) ni flush por fila: cada línea termina en '\n' y
+        // el flush queda a cargo del buffer de la respuesta
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            userService.exportUsers(user -> {
+                try {
+                    writer.writeValue(generator, user);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
-        return ResponseEntity.ok(users);
     }
 
     @Operation(summary = "Obtener usuario por ID", description = "Retorna un usuario específico basado en su ID")
@@ -63,21 +165,38 @@ public class UserController {
         @ApiResponse(responseCode = "200", description = "Usuario encontrado",
             content = @Content(mediaType = "application/json",
             schema = @Schema(implementation = UserDto.class))),
+        @ApiResponse(responseCode = "304", description = "El usuario no cambió desde el ETag enviado"),
         @ApiResponse(responseCode = "404", description = "Usuario no encontrado",
             content = @Content(mediaType = "application/json",
             schema = @Schema(implementation = ErrorMessage.class)))
     })
     @GetMapping("/{id}")
-    public ResponseEntity<?> getUserById(
+    public DeferredResult<ResponseEntity<?>> getUserById(
         @Parameter(description = "ID del usuario a buscar", required = true)
-        @PathVariable UUID id) {
-        Optional<User> userOpt = userService.getUserById(id);
-        if (userOpt.isPresent()) {
-            return ResponseEntity.ok(userService.convertToDto(userOpt.get()));
-        }
-        return ResponseEntity
-            .status(HttpStatus.NOT_FOUND)
-            .body(new ErrorMessage("Usuario con ID " + id + " no encontrado"));
+        @PathVariable UUID id,
+        @Parameter(description = "ETag del usuario obtenido previamente")
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return endpointExecutors.submit(Workload.READS, () -> {
+            // Revalidación barata: solo se consulta la versión, sin cargar el usuario ni sus teléfonos
+            if (ifNoneMatch != null) {
+                Optional<Long> version = userService.getUserVersion(id);
+                if (version.isPresent() && ETags.matches(ifNoneMatch, ETags.of(version.get()))) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(version.get())).build();
+                }
+            }
+
+            Optional<User> userOpt = userService.getUserById(id);
+            if (userOpt.isPresent()) {
+                User user = userOpt.get();
+                return ResponseEntity.ok()
+                    .eTag(ETags.of(user.getVersion()))
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(userService.convertToDto(user));
+            }
+            return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(new ErrorMessage("Usuario con ID " + id + " no encontrado"));
+        });
     }
 
     @Operation(summary = "Crear nuevo usuario", description = "Crea un nuevo usuario con los datos proporcionados")
@@ -93,19 +212,69 @@ public class UserController {
             schema = @Schema(implementation = ErrorMessage.class)))
     })
     @PostMapping
-    public ResponseEntity<?> createUser(
+    public DeferredResult<ResponseEntity<?>> createUser(
         @Parameter(description = "Datos del usuario a crear", required = true)
         @RequestBody UserCreateUpdateDto userDto) {
-        try {
-            UserDto createdUser = userService.createUserWithValidation(userDto);
-            return ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(new ValidationErrorResponse(e.getMessage()));
-        } catch (IllegalStateException e) {
-            return ResponseEntity.status(HttpStatus.CONFLICT)
-                .body(new ErrorMessage(e.getMessage()));
+        return endpointExecutors.submit(Workload.WRITES, () -> {
+            try {
+                UserDto createdUser = userService.createUserWithValidation(userDto);
+                return ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ValidationErrorResponse(e.getMessage()));
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorMessage(e.getMessage()));
+            }
+        });
+    }
+
+    @Operation(summary = "Importar usuarios", description = "Crea varios usuarios en una sola solicitud. Acepta un arreglo JSON "
+        + "o NDJSON (un usuario por línea) y retorna el resultado de cada fila; las filas inválidas no impiden crear las demás")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Importación procesada",
+            content = @Content(mediaType = "application/json",
+            schema = @Schema(implementation = UserBatchResultDto.class))),
+        @ApiResponse(responseCode = "400", description = "Solicitud vacía, mal formada o con demasiados usuarios",
+            content = @Content(mediaType = "application/json",
+            schema = @Schema(implementation = ValidationErrorResponse.class))),
+        @ApiResponse(responseCode = "409", description = "Un correo se registró mientras se procesaba la importación",
+            content = @Content(mediaType = "application/json",
+            schema = @Schema(implementation = ErrorMessage.class)))
+    })
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<?>> importUsers(
+        @Parameter(description = "Usuarios a crear", required = true)
+        @RequestBody List<UserCreateUpdateDto> userDtos) {
+        return endpointExecutors.submit(Workload.WRITES, () -> {
+            try {
+                return ResponseEntity.ok(userService.importUsers(userDtos));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ValidationErrorResponse(e.getMessage()));
+            } catch (DataIntegrityViolationException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorMessage("Uno de los correos se registró durante la importación; ningún usuario fue creado"));
+            }
+        });
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public DeferredResult<ResponseEntity<?>> importUsersNdjson(HttpServletRequest request) throws IOException {
+        // El cuerpo se lee en el hilo de la petición; solo la importación pasa al pool de escrituras.
+        // Se deja de leer al superar el máximo: el servicio rechaza el lote sin cargar el resto del cuerpo
+        int limit = userBatchProperties.getMaxSize() + 1;
+        List<UserCreateUpdateDto> userDtos = new ArrayList<>();
+        try (MappingIterator<UserCreateUpdateDto> lines = objectMapper.readerFor(UserCreateUpdateDto.class)
+                .readValues(request.getInputStream())) {
+            while (userDtos.size() < limit && lines.hasNextValue()) {
+                userDtos.add(lines.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            return EndpointExecutors.completed(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ValidationErrorResponse("La línea " + (userDtos.size() + 1) + " no es un usuario JSON válido")));
         }
+        return importUsers(userDtos);
     }
 
     @Operation(summary = "Actualizar usuario", description = "Actualiza todos los datos de un usuario existente")
@@ -120,29 +289,36 @@ public class UserController {
             content = @Content(mediaType = "application/json",
             schema = @Schema(implementation = ErrorMessage.class))),
         @ApiResponse(responseCode = "409", description = "El correo ya está registrado para otro usuario",
+            content = @Content(mediaType = "application/json",
+            schema = @Schema(implementation = ErrorMessage.class))),
+        @ApiResponse(responseCode = "412", description = "If-Match no coincide con la versión actual del usuario",
             content = @Content(mediaType = "application/json",
             schema = @Schema(implementation = ErrorMessage.class)))
     })
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateUser(
+    public DeferredResult<ResponseEntity<?>> updateUser(
         @Parameter(description = "ID del usuario a actualizar", required = true)
         @PathVariable UUID id,
         @Parameter(description = "Datos actualizados del usuario", required = true)
-        @RequestBody UserCreateUpdateDto userDto) {
-        try {
-            UserDto updatedUser = userService.updateUserWithValidation(id, userDto);
-            return ResponseEntity.ok(updatedUser);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(new ValidationErrorResponse(e.getMessage()));
-        } catch (IllegalStateException e) {
-            if (e.getMessage().contains("no encontrado")) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+        @RequestBody UserCreateUpdateDto userDto,
+        @Parameter(description = "ETag del usuario leído; si ya no es el actual se responde 412")
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return endpointExecutors.submit(Workload.WRITES, () -> {
+            try {
+                UserDto updatedUser = userService.updateUserWithValidation(id, userDto, ETags.ifMatchVersions(ifMatch));
+                return ResponseEntity.ok().eTag(ETags.of(updatedUser.getVersion())).body(updatedUser);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ValidationErrorResponse(e.getMessage()));
+            } catch (IllegalStateException e) {
+                if (e.getMessage().contains("no encontrado")) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ErrorMessage(e.getMessage()));
+                }
+                return ResponseEntity.status(HttpStatus.CONFLICT)
                     .body(new ErrorMessage(e.getMessage()));
             }
-            return ResponseEntity.status(HttpStatus.CONFLICT)
-                .body(new ErrorMessage(e.getMessage()));
-        }
+        });
     }
 
     @Operation(summary = "Actualización parcial de usuario", description = "Actualiza parcialmente los datos de un usuario existente")
@@ -157,29 +333,36 @@ public class UserController {
             content = @Content(mediaType = "application/json",
             schema = @Schema(implementation = ErrorMessage.class))),
         @ApiResponse(responseCode = "409", description = "El correo ya está registrado para otro usuario",
+            content = @Content(mediaType = "application/json",
+            schema = @Schema(implementation = ErrorMessage.class))),
+        @ApiResponse(responseCode = "412", description = "If-Match no coincide con la versión actual del usuario",
             content = @Content(mediaType = "application/json",
             schema = @Schema(implementation = ErrorMessage.class)))
     })
     @PatchMapping("/{id}")
-    public ResponseEntity<?> partialUpdateUser(
+    public DeferredResult<ResponseEntity<?>> partialUpdateUser(
         @Parameter(description = "ID del usuario a actualizar", required = true)
         @PathVariable UUID id,
         @Parameter(description = "Datos parciales del usuario a actualizar", required = true)
-        @RequestBody UserCreateUpdateDto userDto) {
-        try {
-            UserDto updatedUser = userService.partialUpdateUserWithValidation(id, userDto);
-            return ResponseEntity.ok(updatedUser);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(new ValidationErrorResponse(e.getMessage()));
-        } catch (IllegalStateException e) {
-            if (e.getMessage().contains("no encontrado")) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+        @RequestBody UserCreateUpdateDto userDto,
+        @Parameter(description = "ETag del usuario leído; si ya no es el actual se responde 412")
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return endpointExecutors.submit(Workload.WRITES, () -> {
+            try {
+                UserDto updatedUser = userService.partialUpdateUserWithValidation(id, userDto, ETags.ifMatchVersions(ifMatch));
+                return ResponseEntity.ok().eTag(ETags.of(updatedUser.getVersion())).body(updatedUser);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ValidationErrorResponse(e.getMessage()));
+            } catch (IllegalStateException e) {
+                if (e.getMessage().contains("no encontrado")) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ErrorMessage(e.getMessage()));
+                }
+                return ResponseEntity.status(HttpStatus.CONFLICT)
                     .body(new ErrorMessage(e.getMessage()));
             }
-            return ResponseEntity.status(HttpStatus.CONFLICT)
-                .body(new ErrorMessage(e.getMessage()));
-        }
+        });
     }
 
     @Operation(summary = "Eliminar usuario", description = "Elimina un usuario existente por su ID")
@@ -190,15 +373,17 @@ public class UserController {
             schema = @Schema(implementation = ErrorMessage.class)))
     })
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteUser(
+    public DeferredResult<ResponseEntity<?>> deleteUser(
         @Parameter(description = "ID del usuario a eliminar", required = true)
         @PathVariable UUID id) {
-        if (!userService.existsById(id)) {
-            return ResponseEntity
-                .status(HttpStatus.NOT_FOUND)
-                .body(new ErrorMessage("Usuario con ID " + id + " no encontrado"));
-        }
-        userService.deleteUser(id);
-        return ResponseEntity.noContent().build();
+        return endpointExecutors.submit(Workload.WRITES, () -> {
+            if (!userService.existsById(id)) {
+                return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorMessage("Usuario con ID " + id + " no encontrado"));
+            }
+            userService.deleteUser(id);
+            return ResponseEntity.noContent().build();
+        });
     }
 }
@@ -3,11 +3,18 @@ package com.juan.spring.dto;
 public class JwtAuthResponse {
     private String accessToken;
     private String tokenType = "Bearer";
+    // Token opaco para obtener un nuevo accessToken en /api/auth/refresh sin volver a enviar la contraseña
+    private String refreshToken;
 
     public JwtAuthResponse(String accessToken) {
         this.accessToken = accessToken;
     }
 
+    public JwtAuthResponse(String accessToken, String refreshToken) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+    }
+
     public String getAccessToken() {
         return accessToken;
     }
@@ -23,4 +30,12 @@ public class JwtAuthResponse {
     public void setTokenType(String tokenType) {
         this.tokenType = tokenType;
     }
-} 
\ No newline at end of file
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
@@ -0,0 +1,13 @@
+package com.juan.spring.dto;
+
+public class RefreshTokenDto {
+    private String refreshToken;
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
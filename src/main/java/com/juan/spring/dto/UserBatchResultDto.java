@@ -0,0 +1,58 @@
+package com.juan.spring.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Reporte de una importación masiva de usuarios")
+public class UserBatchResultDto {
+    @Schema(description = "Usuarios recibidos", example = "3")
+    private int total;
+
+    @Schema(description = "Usuarios creados", example = "2")
+    private int creados;
+
+    @Schema(description = "Usuarios rechazados", example = "1")
+    private int rechazados;
+
+    @Schema(description = "Resultado de cada usuario, en el orden de la solicitud")
+    private List<UserBatchRowDto> resultados;
+
+    public UserBatchResultDto(List<UserBatchRowDto> resultados) {
+        this.resultados = resultados;
+        this.total = resultados.size();
+        this.creados = (int) resultados.stream().filter(row -> UserBatchRowDto.CREADO.equals(row.getEstado())).count();
+        this.rechazados = total - creados;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getCreados() {
+        return creados;
+    }
+
+    public void setCreados(int creados) {
+        this.creados = creados;
+    }
+
+    public int getRechazados() {
+        return rechazados;
+    }
+
+    public void setRechazados(int rechazados) {
+        this.rechazados = rechazados;
+    }
+
+    public List<UserBatchRowDto> getResultados() {
+        return resultados;
+    }
+
+    public void setResultados(List<UserBatchRowDto> resultados) {
+        this.resultados = resultados;
+    }
+}
@@ -0,0 +1,86 @@
+package com.juan.spring.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.UUID;
+
+@Schema(description = "Resultado de un usuario dentro de una importación masiva")
+public class UserBatchRowDto {
+    public static final String CREADO = "CREADO";
+    public static final String RECHAZADO = "RECHAZADO";
+
+    @Schema(description = "Posición del usuario en la solicitud, empezando en 0", example = "0")
+    private int indice;
+
+    @Schema(description = "Correo electrónico enviado", example = "cualquiera@ejemplo.com")
+    private String correo;
+
+    @Schema(description = "Resultado de la fila", example = CREADO, allowableValues = {CREADO, RECHAZADO})
+    private String estado;
+
+    @Schema(description = "ID asignado si el usuario fue creado")
+    private UUID id;
+
+    @Schema(description = "Motivo del rechazo, si corresponde")
+    private String error;
+
+    public static UserBatchRowDto creado(int indice, String correo, UUID id) {
+        UserBatchRowDto row = new UserBatchRowDto(indice, correo, CREADO);
+        row.setId(id);
+        return row;
+    }
+
+    public static UserBatchRowDto rechazado(int indice, String correo, String error) {
+        UserBatchRowDto row = new UserBatchRowDto(indice, correo, RECHAZADO);
+        row.setError(error);
+        return row;
+    }
+
+    public UserBatchRowDto() {
+    }
+
+    private UserBatchRowDto(int indice, String correo, String estado) {
+        this.indice = indice;
+        this.correo = correo;
+        this.estado = estado;
+    }
+
+    public int getIndice() {
+        return indice;
+    }
+
+    public void setIndice(int indice) {
+        this.indice = indice;
+    }
+
+    public String getCorreo() {
+        return correo;
+    }
+
+    public void setCorreo(String correo) {
+        this.correo = correo;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
+    public void setEstado(String estado) {
+        this.estado = estado;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
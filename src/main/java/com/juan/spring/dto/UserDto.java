@@ -13,6 +13,8 @@ public class UserDto {
     private LocalDateTime modificado;
     private LocalDateTime ultimoLogin;
     private String token;
+    // Versión del usuario; es el valor del ETag y el que se envía en If-Match al actualizar
+    private Long version;
     private List<PhoneDto> telefonos;
 
     public UUID getId() {
@@ -79,6 +81,14 @@ public class UserDto {
         this.token = token;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public List<PhoneDto> getTelefonos() {
         return telefonos;
     }
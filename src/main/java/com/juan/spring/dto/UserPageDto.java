@@ -0,0 +1,46 @@
+package com.juan.spring.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Página de usuarios obtenida con paginación por cursor")
+public class UserPageDto {
+    @Schema(description = "Usuarios de la página actual")
+    private List<UserDto> usuarios;
+
+    @Schema(description = "Cursor para solicitar la siguiente página; nulo si no hay más resultados")
+    private String siguienteCursor;
+
+    @Schema(description = "Tamaño de página aplicado", example = "50")
+    private int tamano;
+
+    public UserPageDto(List<UserDto> usuarios, String siguienteCursor, int tamano) {
+        this.usuarios = usuarios;
+        this.siguienteCursor = siguienteCursor;
+        this.tamano = tamano;
+    }
+
+    public List<UserDto> getUsuarios() {
+        return usuarios;
+    }
+
+    public void setUsuarios(List<UserDto> usuarios) {
+        this.usuarios = usuarios;
+    }
+
+    public String getSiguienteCursor() {
+        return siguienteCursor;
+    }
+
+    public void setSiguienteCursor(String siguienteCursor) {
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    public int getTamano() {
+        return tamano;
+    }
+
+    public void setTamano(int tamano) {
+        this.tamano = tamano;
+    }
+}
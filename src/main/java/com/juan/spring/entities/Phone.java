@@ -1,12 +1,19 @@
 package com.juan.spring.entities;
 
 import javax.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import com.juan.spring.config.SecondLevelCacheConfig;
 
 @Entity
 @Table(name = "telefonos")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.PHONES_REGION)
 public class Phone {
+    // Secuencia con asignación por bloques: Hibernate reserva 50 IDs por consulta y puede agrupar los INSERT
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "telefonos_seq")
+    @SequenceGenerator(name = "telefonos_seq", sequenceName = "telefonos_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -0,0 +1,91 @@
+package com.juan.spring.entities;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import org.hibernate.annotations.Type;
+
+/**
+ * Refresh token opaco. Solo se guarda su SHA-256; cada uso lo marca como usado y emite otro de la misma
+ * familia, así que presentar uno ya usado delata una copia y revoca toda la familia.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "ux_refresh_tokens_token_hash", columnList = "token_hash", unique = true),
+        @Index(name = "ix_refresh_tokens_usuario_id", columnList = "usuario_id"),
+        @Index(name = "ix_refresh_tokens_familia", columnList = "familia")
+})
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_seq")
+    @SequenceGenerator(name = "refresh_tokens_seq", sequenceName = "refresh_tokens_seq", allocationSize = 50)
+    private Long id;
+
+    // SHA-256 en Base64 URL del token entregado al cliente
+    @Column(name = "token_hash", nullable = false, length = 43)
+    private String tokenHash;
+
+    // Sin relación con la entidad User: validar un refresh token no debe cargar al usuario ni sus teléfonos
+    @Type(type = "org.hibernate.type.UUIDCharType")
+    @Column(name = "usuario_id", nullable = false, length = 36)
+    private UUID usuarioId;
+
+    // Tokens encadenados por rotación desde un mismo login
+    @Type(type = "org.hibernate.type.UUIDCharType")
+    @Column(name = "familia", nullable = false, length = 36)
+    private UUID familia;
+
+    @Column(name = "expira", nullable = false)
+    private LocalDateTime expira;
+
+    @Column(name = "usado", nullable = false)
+    private boolean usado;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public UUID getUsuarioId() {
+        return usuarioId;
+    }
+
+    public void setUsuarioId(UUID usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    public UUID getFamilia() {
+        return familia;
+    }
+
+    public void setFamilia(UUID familia) {
+        this.familia = familia;
+    }
+
+    public LocalDateTime getExpira() {
+        return expira;
+    }
+
+    public void setExpira(LocalDateTime expira) {
+        this.expira = expira;
+    }
+
+    public boolean isUsado() {
+        return usado;
+    }
+
+    public void setUsado(boolean usado) {
+        this.usado = usado;
+    }
+}
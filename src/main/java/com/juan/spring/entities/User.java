@@ -4,11 +4,22 @@ import javax.persistence.*;
 import java.util.UUID;
 import java.util.List;
 import java.time.LocalDateTime;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Type;
+import com.juan.spring.config.SecondLevelCacheConfig;
+import com.juan.spring.services.UserEmailListener;
+import com.juan.spring.validation.EmailNormalizer;
 
 @Entity
-@Table(name = "usuarios")
+@Table(name = "usuarios", indexes = @Index(name = "ux_usuarios_correo_normalizado",
+        columnList = "correo_normalizado", unique = true))
+@EntityListeners(UserEmailListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.USERS_REGION)
 public class User {
     @Id
     @GeneratedValue(generator = "UUID")
@@ -21,9 +32,19 @@ public class User {
     @Column(unique = true)
     private String correo;
 
+    // Correo en minúsculas y sin espacios; se mantiene desde setCorreo y define la unicidad real
+    @Column(name = "correo_normalizado")
+    private String correoNormalizado;
+
+    // Valor de correoNormalizado leído de la base, para detectar cambios de correo al actualizar
+    @Transient
+    private String correoNormalizadoGuardado;
+
     private String contrasena;
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.USER_PHONES_REGION)
     private List<Phone> telefonos;
 
     @Column(name = "creado", nullable = false, updatable = false)
@@ -38,6 +59,17 @@ public class User {
 
     private Boolean estaActivo;
 
+    // Se incrementa en cada escritura (también en el UPDATE por lotes del último login); origen del ETag
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // Versión de los tokens autocontenidos: se incrementa al revocarlos y se rechazan los emitidos con una menor
+    @ColumnDefault("0")
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
     public UUID getId() {
         return id;
     }
@@ -60,6 +92,19 @@ public class User {
 
     public void setCorreo(String correo) {
         this.correo = correo;
+        this.correoNormalizado = EmailNormalizer.normalize(correo);
+    }
+
+    public String getCorreoNormalizado() {
+        return correoNormalizado;
+    }
+
+    public String getCorreoNormalizadoGuardado() {
+        return correoNormalizadoGuardado;
+    }
+
+    public void setCorreoNormalizadoGuardado(String correoNormalizadoGuardado) {
+        this.correoNormalizadoGuardado = correoNormalizadoGuardado;
     }
 
     public String getContrasena() {
@@ -118,12 +163,28 @@ public class User {
         this.estaActivo = estaActivo;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
     public String getEmail() {
         return correo;
     }
 
     public void setEmail(String email) {
-        this.correo = email;
+        setCorreo(email);
     }
 
     @PrePersist
@@ -2,14 +2,19 @@ package com.juan.spring.repositories;
 
 import com.juan.spring.entities.Phone;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface PhoneRepository extends JpaRepository<Phone, Long> {
-    // Encontrar todos los teléfonos de un usuario específico
-    List<Phone> findByUserId(UUID userId);
+    // Encontrar todos los teléfonos de un usuario específico. La consulta derivada de "userId" agrega un
+    // LEFT JOIN a usuarios y filtra sobre esa tabla, así que no puede usar el índice de telefonos.user_id
+    @Query("select p from Phone p where p.user.id = :userId")
+    List<Phone> findByUserId(@Param("userId") UUID userId);
     
     // Encontrar teléfonos por código de país
     List<Phone> findByCodigoPais(String codigoPais);
@@ -20,6 +25,8 @@ public interface PhoneRepository extends JpaRepository<Phone, Long> {
     // Encontrar teléfonos por número
     List<Phone> findByNumero(String numero);
     
-    // Eliminar todos los teléfonos de un usuario específico
-    void deleteByUserId(UUID userId);
+    // Eliminar todos los teléfonos de un usuario específico en un solo DELETE por índice, sin cargarlos antes
+    @Modifying
+    @Query("delete from Phone p where p.user.id = :userId")
+    void deleteByUserId(@Param("userId") UUID userId);
 } 
\ No newline at end of file
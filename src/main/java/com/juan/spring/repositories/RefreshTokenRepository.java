@@ -0,0 +1,34 @@
+package com.juan.spring.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import com.juan.spring.entities.RefreshToken;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Marca el token como usado solo si nadie lo usó antes; 0 filas significa que otra petición ya lo rotó
+    @Modifying
+    @Query("update RefreshToken t set t.usado = true where t.id = :id and t.usado = false")
+    int markUsed(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.familia = :familia")
+    int deleteByFamilia(@Param("familia") UUID familia);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.usuarioId = :usuarioId")
+    int deleteByUsuarioId(@Param("usuarioId") UUID usuarioId);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.expira < :ahora")
+    int deleteExpired(@Param("ahora") LocalDateTime ahora);
+}
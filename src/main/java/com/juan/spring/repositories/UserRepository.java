@@ -1,12 +1,93 @@
 package com.juan.spring.repositories;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.juan.spring.entities.User;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
+    // Filas que trae el driver por cada viaje al recorrer el cursor de exportación
+    int EXPORT_FETCH_SIZE = 500;
+
+    // Cacheada en la región de consultas: guarda solo el ID y el usuario sale de la región de entidades.
+    // Cualquier escritura de Hibernate sobre usuarios invalida los resultados cacheados
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<User> findByCorreo(String correo);
+
+    // Usuario con sus teléfonos en una sola consulta
+    @EntityGraph(attributePaths = "telefonos")
+    Optional<User> findWithTelefonosById(UUID id);
+
+    // Consultas de solo existencia sobre el correo normalizado (índice único), sin cargar la entidad
+    boolean existsByCorreoNormalizado(String correoNormalizado);
+
+    boolean existsByCorreoNormalizadoAndIdNot(String correoNormalizado, UUID id);
+
+    // Correos normalizados ya registrados entre los recibidos, para validar una importación con una sola consulta
+    @Query("select u.correoNormalizado from User u where u.correoNormalizado in :correos")
+    List<String> findRegisteredCorreosNormalizados(@Param("correos") Collection<String> correos);
+
+    // Todos los correos normalizados, para cargar el filtro de correos registrados. Se lee la columna que
+    // consultan existsByCorreoNormalizado y el índice único: normalizar de nuevo en SQL (lower/trim) puede
+    // no coincidir con EmailNormalizer y dejar correos registrados fuera del filtro
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select u.correoNormalizado from User u where u.correoNormalizado is not null")
+    Stream<String> streamCorreosNormalizados();
+
+    // Inicializa en una sola consulta los teléfonos de un conjunto de usuarios ya cargados
+    @Query("select distinct u from User u left join fetch u.telefonos where u.id in :ids")
+    List<User> fetchTelefonos(@Param("ids") Collection<UUID> ids);
+
+    // Primera página del listado ordenado por (creado, id)
+    @Query("select u from User u order by u.creado asc, u.id asc")
+    List<User> findFirstPage(Pageable pageable);
+
+    // Página siguiente a la posición (creado, id) del cursor, sin OFFSET
+    @Query("select u from User u where u.creado > :creado or (u.creado = :creado and u.id > :id) "
+            + "order by u.creado asc, u.id asc")
+    List<User> findPageAfter(@Param("creado") LocalDateTime creado, @Param("id") UUID id, Pageable pageable);
+
+    // Versión actual del usuario, para responder 304 sin cargarlo
+    @Query("select u.version from User u where u.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    // Versión vigente de los tokens autocontenidos; se lee sin pasar por la caché de segundo nivel
+    @Query("select u.tokenVersion from User u where u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") UUID id);
+
+    // Mismas páginas que findFirstPage y findPageAfter, solo con ID y versión
+    @Query("select u.id as id, u.version as version from User u order by u.creado asc, u.id asc")
+    List<UserVersion> findFirstPageVersions(Pageable pageable);
+
+    @Query("select u.id as id, u.version as version from User u "
+            + "where u.creado > :creado or (u.creado = :creado and u.id > :id) order by u.creado asc, u.id asc")
+    List<UserVersion> findPageVersionsAfter(@Param("creado") LocalDateTime creado, @Param("id") UUID id, Pageable pageable);
+
+    // Recorre todos los usuarios con un cursor forward-only; debe consumirse dentro de una transacción.
+    // Quien la recorre debe desactivar la caché de segundo nivel en la sesión (ver UserServiceImpl.exportUsers)
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select u from User u order by u.creado asc, u.id asc")
+    Stream<User> streamAll();
 }
@@ -0,0 +1,13 @@
+package com.juan.spring.repositories;
+
+import java.util.UUID;
+
+/**
+ * Proyección con el ID y la versión de un usuario, para calcular ETags sin cargar la entidad ni sus teléfonos.
+ */
+public interface UserVersion {
+
+    UUID getId();
+
+    Long getVersion();
+}
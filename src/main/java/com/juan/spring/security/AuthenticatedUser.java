@@ -0,0 +1,31 @@
+package com.juan.spring.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * {@link User} de Spring Security que además conserva el ID del usuario, para emitir tokens
+ * sin volver a consultar la base de datos.
+ */
+public class AuthenticatedUser extends User {
+
+    private final UUID id;
+
+    public AuthenticatedUser(UUID id, String correo, String contrasena,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(correo, contrasena, authorities);
+        this.id = id;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    // Copia independiente: eraseCredentials() sobre la copia no afecta al original
+    public AuthenticatedUser copy() {
+        return new AuthenticatedUser(id, getUsername(), getPassword(), getAuthorities());
+    }
+}
@@ -0,0 +1,168 @@
+package com.juan.spring.security;
+
+import com.juan.spring.config.PasswordHashingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link PasswordEncoder} que ejecuta el hash y la verificación en un pool propio, del tamaño de las CPUs
+ * y con cola acotada, para que el tráfico de login y registro no agote los hilos de Tomcat.
+ * Si la cola está llena o la espera supera el máximo configurado, lanza {@link PasswordHashingRejectedException}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final String METRIC_PREFIX = "password.hashing";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitNanos;
+    private final int retryAfterSeconds;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        int threads = properties.getThreads() > 0 ? properties.getThreads() : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxWaitNanos = properties.getMaxWait().toNanos();
+        this.retryAfterSeconds = properties.getRetryAfterSeconds();
+
+        this.encodeTimer = Timer.builder(METRIC_PREFIX + ".duration").tag("operation", "encode")
+                .description("Tiempo de cálculo de hash de contraseña").register(meterRegistry);
+        this.matchesTimer = Timer.builder(METRIC_PREFIX + ".duration").tag("operation", "matches")
+                .description("Tiempo de verificación de contraseña").register(meterRegistry);
+        this.waitTimer = Timer.builder(METRIC_PREFIX + ".wait")
+                .description("Tiempo en cola antes de empezar el hash").register(meterRegistry);
+        this.rejectedCounter = Counter.builder(METRIC_PREFIX + ".rejected")
+                .description("Operaciones rechazadas por saturación del pool").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".queue.depth", executor, e -> e.getQueue().size())
+                .description("Operaciones de hash en cola").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hilos calculando hashes").register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Calcula el hash de varias contraseñas usando todos los hilos del pool. Mantiene como máximo
+     * un hash en vuelo por hilo, para no llenar la cola que comparten login y registro.
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        List<String> encoded = new ArrayList<>(rawPasswords.size());
+        Deque<Future<String>> inFlight = new ArrayDeque<>();
+        int window = executor.getCorePoolSize();
+        try {
+            for (CharSequence rawPassword : rawPasswords) {
+                if (inFlight.size() == window) {
+                    encoded.add(await(inFlight.poll()));
+                }
+                Future<String> future = trySubmit(() -> delegate.encode(rawPassword), encodeTimer);
+                // Un hilo puede seguir ocupado unos instantes tras completar su tarea: se espera la más antigua y se reintenta
+                while (future == null) {
+                    if (inFlight.isEmpty()) {
+                        throw reject();
+                    }
+                    encoded.add(await(inFlight.poll()));
+                    future = trySubmit(() -> delegate.encode(rawPassword), encodeTimer);
+                }
+                inFlight.add(future);
+            }
+            while (!inFlight.isEmpty()) {
+                encoded.add(await(inFlight.poll()));
+            }
+            return encoded;
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T execute(Callable<T> operation, Timer operationTimer) {
+        Future<T> future = trySubmit(operation, operationTimer);
+        if (future == null) {
+            throw reject();
+        }
+        return await(future);
+    }
+
+    // Retorna null si el pool y la cola están llenos
+    private <T> Future<T> trySubmit(Callable<T> operation, Timer operationTimer) {
+        long submittedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return operationTimer.recordCallable(operation);
+            });
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw reject();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando el hash de la contraseña", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Error calculando el hash de la contraseña", cause);
+        }
+    }
+
+    private PasswordHashingRejectedException reject() {
+        rejectedCounter.increment();
+        return new PasswordHashingRejectedException(
+                "El servicio de autenticación está saturado, intente nuevamente más tarde", retryAfterSeconds);
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.juan.spring.security;
+
+import java.math.BigInteger;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Representación JWK Set (RFC 7517) de las claves públicas de firma, para que otros servicios verifiquen
+ * los tokens localmente.
+ */
+public final class JwkSet {
+
+    // Longitud en bytes de cada coordenada de un punto de la curva P-256
+    private static final int P256_COORDINATE_BYTES = 32;
+
+    private JwkSet() {
+    }
+
+    public static Map<String, Object> of(Map<String, PublicKey> publicKeys) {
+        List<Map<String, Object>> keys = new ArrayList<>();
+        publicKeys.forEach((kid, key) -> {
+            if (key instanceof ECPublicKey) {
+                keys.add(ecJwk(kid, (ECPublicKey) key));
+            }
+        });
+        return Collections.singletonMap("keys", keys);
+    }
+
+    private static Map<String, Object> ecJwk(String kid, ECPublicKey key) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", "ES256");
+        jwk.put("x", coordinate(key.getW().getAffineX()));
+        jwk.put("y", coordinate(key.getW().getAffineY()));
+        return jwk;
+    }
+
+    // Coordenada sin signo, rellenada a la longitud fija de la curva y en Base64url sin relleno
+    private static String coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[P256_COORDINATE_BYTES];
+        int length = Math.min(bytes.length, P256_COORDINATE_BYTES);
+        System.arraycopy(bytes, bytes.length - length, fixed, P256_COORDINATE_BYTES - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+}
@@ -1,5 +1,6 @@
 package com.juan.spring.security;
 
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -28,10 +29,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = obtenerJwtDeRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validarToken(jwt)) {
-                String username = tokenProvider.obtenerUsernameDelJWT(jwt);
-
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+            JwtVerificationResult verification = tokenProvider.verificarToken(jwt);
+            UserDetails userDetails = verification.isValid() ? resolverUsuario(verification.getClaims()) : null;
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -45,6 +45,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Con tokens autocontenidos el usuario sale de los claims; si no, de la caché o la base de datos
+    private UserDetails resolverUsuario(Claims claims) {
+        if (tokenProvider.esAutocontenido(claims)) {
+            return tokenProvider.estaRevocado(claims) ? null : tokenProvider.obtenerUsuarioDeClaims(claims);
+        }
+        return customUserDetailsService.loadUserByUsername(claims.getSubject());
+    }
+
     private String obtenerJwtDeRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -0,0 +1,240 @@
+package com.juan.spring.security;
+
+import com.juan.spring.config.JwtProperties;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.DecodingException;
+import io.jsonwebtoken.security.Keys;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.interfaces.ECPrivateKey;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Conjunto inmutable de claves identificadas por kid: una activa, con la que se firma, y el resto solo para
+ * verificar los tokens emitidos antes de una rotación.
+ *
+ * <p>Con HS512 (por defecto) la misma clave secreta firma y verifica. Orden de prioridad de la configuración:
+ * keystore PKCS12 ({@code app.jwt-keystore}), {@code app.jwt-keys}, {@code app.jwt-secret} y, si no hay
+ * ninguna, una clave aleatoria propia de la instancia. Con ES256 se firma con la clave privada y se verifica con
+ * la pública, que puede publicarse; los pares se leen del keystore o, sin él, se genera uno por instancia.</p>
+ *
+ * <p>En el keystore la clave activa es {@code app.jwt-active-kid} o, si no se indica, la de creación más
+ * reciente, así que rotar consiste en agregar una clave nueva al archivo y retirar la anterior cuando expiren
+ * sus tokens.</p>
+ */
+final class JwtKeyRing {
+
+    private static final int MIN_KEY_BYTES = SignatureAlgorithm.HS512.getMinKeyLength() / Byte.SIZE;
+
+    private final SignatureAlgorithm algorithm;
+    private final Map<String, Key> verificationKeys;
+    private final String activeKid;
+    private final Key signingKey;
+
+    private JwtKeyRing(SignatureAlgorithm algorithm, Map<String, ? extends Key> verificationKeys, String activeKid,
+                       Key signingKey) {
+        if (!verificationKeys.containsKey(activeKid)) {
+            throw new IllegalStateException("La clave activa " + activeKid + " no está en el anillo de claves JWT");
+        }
+        this.algorithm = algorithm;
+        this.verificationKeys = Collections.unmodifiableMap(new LinkedHashMap<>(verificationKeys));
+        this.activeKid = activeKid;
+        this.signingKey = signingKey;
+    }
+
+    private static JwtKeyRing symmetric(Map<String, SecretKey> keys, String activeKid) {
+        return new JwtKeyRing(SignatureAlgorithm.HS512, keys, activeKid, keys.get(activeKid));
+    }
+
+    static JwtKeyRing load(JwtProperties properties) {
+        SignatureAlgorithm algorithm = algorithmOf(properties.getJwtAlgorithm());
+        if (hasText(properties.getJwtKeystore())) {
+            Path path = Paths.get(properties.getJwtKeystore());
+            return algorithm == SignatureAlgorithm.ES256
+                ? keyPairsFromKeystore(path, properties.getJwtKeystorePassword(), properties.getJwtActiveKid())
+                : fromKeystore(path, properties.getJwtKeystorePassword(), properties.getJwtActiveKid());
+        }
+        if (algorithm == SignatureAlgorithm.ES256) {
+            if (!properties.getJwtKeys().isEmpty() || hasText(properties.getJwtSecret())) {
+                throw new IllegalStateException("Con ES256 las claves se configuran con app.jwt-keystore");
+            }
+            KeyPair pair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+            String kid = kidOf(pair.getPublic());
+            return new JwtKeyRing(algorithm, Collections.singletonMap(kid, pair.getPublic()), kid, pair.getPrivate());
+        }
+        if (!properties.getJwtKeys().isEmpty()) {
+            Map<String, SecretKey> keys = new LinkedHashMap<>();
+            properties.getJwtKeys().forEach((kid, secret) -> keys.put(kid, decode(secret, "app.jwt-keys." + kid)));
+            if (!hasText(properties.getJwtActiveKid())) {
+                throw new IllegalStateException("app.jwt-active-kid es obligatorio cuando se configura app.jwt-keys");
+            }
+            return symmetric(keys, properties.getJwtActiveKid());
+        }
+        // Sin app.jwt-secret cada instancia genera su propia clave y solo valida los tokens que emitió
+        SecretKey key = hasText(properties.getJwtSecret())
+            ? decode(properties.getJwtSecret(), "app.jwt-secret")
+            : Keys.secretKeyFor(SignatureAlgorithm.HS512);
+        return symmetric(Collections.singletonMap(kidOf(key), key), kidOf(key));
+    }
+
+    // EdDSA no está disponible en jjwt 0.11; HS512 y ES256 son los algoritmos soportados
+    private static SignatureAlgorithm algorithmOf(String name) {
+        if (!hasText(name) || SignatureAlgorithm.HS512.getValue().equalsIgnoreCase(name.trim())) {
+            return SignatureAlgorithm.HS512;
+        }
+        if (SignatureAlgorithm.ES256.getValue().equalsIgnoreCase(name.trim())) {
+            return SignatureAlgorithm.ES256;
+        }
+        throw new IllegalStateException("app.jwt-algorithm debe ser HS512 o ES256: " + name);
+    }
+
+    private static JwtKeyRing fromKeystore(Path path, String password, String activeKid) {
+        char[] secret = password == null ? new char[0] : password.toCharArray();
+        try (InputStream in = Files.newInputStream(path)) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, secret);
+
+            Map<String, SecretKey> keys = new LinkedHashMap<>();
+            String newest = null;
+            Date newestDate = null;
+            for (String alias : Collections.list(keyStore.aliases())) {
+                Key key = keyStore.getKey(alias, secret);
+                if (!(key instanceof SecretKey)) {
+                    continue;
+                }
+                keys.put(alias, checkLength(key.getEncoded(), path + "#" + alias));
+                Date created = keyStore.getCreationDate(alias);
+                if (newest == null || (created != null && (newestDate == null || created.after(newestDate)))) {
+                    newest = alias;
+                    newestDate = created;
+                }
+            }
+            if (keys.isEmpty()) {
+                throw new IllegalStateException("El keystore " + path + " no contiene claves secretas para JWT");
+            }
+            return symmetric(keys, hasText(activeKid) ? activeKid : newest);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo leer el keystore de claves JWT " + path, e);
+        }
+    }
+
+    // Pares EC (alias = kid) generados, por ejemplo, con keytool -genkeypair -keyalg EC -groupname secp256r1
+    private static JwtKeyRing keyPairsFromKeystore(Path path, String password, String activeKid) {
+        char[] secret = password == null ? new char[0] : password.toCharArray();
+        try (InputStream in = Files.newInputStream(path)) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, secret);
+
+            Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+            Map<String, PrivateKey> privateKeys = new LinkedHashMap<>();
+            String newest = null;
+            Date newestDate = null;
+            for (String alias : Collections.list(keyStore.aliases())) {
+                Key key = keyStore.getKey(alias, secret);
+                Certificate certificate = keyStore.getCertificate(alias);
+                if (!(key instanceof ECPrivateKey) || certificate == null) {
+                    continue;
+                }
+                privateKeys.put(alias, (PrivateKey) key);
+                publicKeys.put(alias, certificate.getPublicKey());
+                Date created = keyStore.getCreationDate(alias);
+                if (newest == null || (created != null && (newestDate == null || created.after(newestDate)))) {
+                    newest = alias;
+                    newestDate = created;
+                }
+            }
+            if (publicKeys.isEmpty()) {
+                throw new IllegalStateException("El keystore " + path + " no contiene pares de claves EC para JWT");
+            }
+            String active = hasText(activeKid) ? activeKid : newest;
+            return new JwtKeyRing(SignatureAlgorithm.ES256, publicKeys, active, privateKeys.get(active));
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo leer el keystore de claves JWT " + path, e);
+        }
+    }
+
+    private static SecretKey decode(String base64, String origen) {
+        try {
+            return checkLength(Decoders.BASE64.decode(base64.trim()), origen);
+        } catch (DecodingException ex) {
+            throw new IllegalStateException(origen + " debe estar codificado en Base64", ex);
+        }
+    }
+
+    private static SecretKey checkLength(byte[] secret, String origen) {
+        if (secret.length < MIN_KEY_BYTES) {
+            throw new IllegalStateException(origen + " debe tener al menos 512 bits para HS512");
+        }
+        return Keys.hmacShaKeyFor(secret);
+    }
+
+    // kid estable derivado de la clave, para que todas las réplicas con el mismo secreto usen el mismo
+    private static String kidOf(Key key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getEncoded());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+
+    SignatureAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    String getActiveKid() {
+        return activeKid;
+    }
+
+    Key getSigningKey() {
+        return signingKey;
+    }
+
+    // Clave de verificación del kid indicado, o null si no pertenece al anillo
+    Key getVerificationKey(String kid) {
+        return verificationKeys.get(kid);
+    }
+
+    Map<String, Key> getVerificationKeys() {
+        return verificationKeys;
+    }
+
+    // Solo las claves públicas pueden publicarse; con HS512 el resultado es vacío
+    Map<String, PublicKey> getPublicKeys() {
+        Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+        verificationKeys.forEach((kid, key) -> {
+            if (key instanceof PublicKey) {
+                publicKeys.put(kid, (PublicKey) key);
+            }
+        });
+        return publicKeys;
+    }
+
+    boolean sameKeysAs(JwtKeyRing other) {
+        return other != null && algorithm == other.algorithm && activeKid.equals(other.activeKid)
+            && verificationKeys.equals(other.verificationKeys);
+    }
+}
@@ -1,65 +1,290 @@
 package com.juan.spring.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.juan.spring.config.JwtProperties;
+import com.juan.spring.config.VerifiedTokenCacheProperties;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SecurityException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
-import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenProvider {
 
-    private SecretKey key;
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenProvider.class);
+
+    public static final String VERIFIED_TOKENS_CACHE_NAME = "verifiedTokens";
+
+    // Claims de los tokens autocontenidos
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_VERSION = "ver";
+
+    private final JwtProperties jwtProperties;
+    private final VerifiedTokenCacheProperties cacheProperties;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final MeterRegistry meterRegistry;
+
+    // Se reemplaza completo al recargar el keystore; la firma y el parser leen siempre la versión vigente
+    private volatile JwtKeyRing keyRing;
+    private JwtParser parser;
+    private Cache<String, Claims> verifiedTokens;
+
+    private Timer signTimer;
+    private Timer verifyValidTimer;
+    private Timer verifyInvalidTimer;
+
+    public JwtTokenProvider(JwtProperties jwtProperties, VerifiedTokenCacheProperties cacheProperties,
+                            TokenRevocationRegistry revocationRegistry, MeterRegistry meterRegistry) {
+        this.jwtProperties = jwtProperties;
+        this.cacheProperties = cacheProperties;
+        this.revocationRegistry = revocationRegistry;
+        this.meterRegistry = meterRegistry;
+    }
 
     @PostConstruct
     public void init() {
-        this.key = Keys.secretKeyFor(SignatureAlgorithm.HS512);
+        this.keyRing = JwtKeyRing.load(jwtProperties);
+        // El parser es inmutable y thread-safe: se construye una sola vez y resuelve la clave por kid
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new KeyRingResolver())
+                .setAllowedClockSkewSeconds(jwtProperties.getJwtClockSkew().getSeconds())
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getMaxSize())
+                .expireAfter(new ClaimsExpiry(TimeUnit.MILLISECONDS.toNanos(cacheProperties.getTtl().toMillis())))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, VERIFIED_TOKENS_CACHE_NAME);
+
+        // Solo se mide la firma y la verificación criptográfica; los aciertos de caché están en cache.gets
+        this.signTimer = Timer.builder("jwt.sign")
+                .description("Tiempo de firma de tokens JWT").register(meterRegistry);
+        this.verifyValidTimer = Timer.builder("jwt.verify").tag("result", "valid")
+                .description("Tiempo de verificación de tokens JWT").register(meterRegistry);
+        this.verifyInvalidTimer = Timer.builder("jwt.verify").tag("result", "invalid")
+                .description("Tiempo de verificación de tokens JWT").register(meterRegistry);
+    }
+
+    /**
+     * Relee el keystore de claves y, si cambió, pasa a firmar con la nueva clave activa. Los tokens ya
+     * verificados se descartan de la caché para que los firmados con una clave retirada dejen de aceptarse.
+     * Sin app.jwt-keystore las claves vienen de la configuración y no cambian en caliente.
+     */
+    @Scheduled(fixedDelayString = "#{@jwtProperties.jwtKeysReloadInterval.toMillis()}",
+            initialDelayString = "#{@jwtProperties.jwtKeysReloadInterval.toMillis()}")
+    public synchronized boolean recargarClaves() {
+        if (jwtProperties.getJwtKeystore() == null || jwtProperties.getJwtKeystore().trim().isEmpty()) {
+            return false;
+        }
+        JwtKeyRing reloaded;
+        try {
+            reloaded = JwtKeyRing.load(jwtProperties);
+        } catch (IllegalStateException e) {
+            // Un archivo a medio copiar no debe dejar a la instancia sin claves: se conservan las actuales
+            log.warn("No se pudo recargar el anillo de claves JWT; se mantienen las claves actuales", e);
+            return false;
+        }
+        if (reloaded.sameKeysAs(keyRing)) {
+            return false;
+        }
+        keyRing = reloaded;
+        verifiedTokens.invalidateAll();
+        log.info("Anillo de claves JWT recargado: clave activa {}, {} claves de verificación",
+                reloaded.getActiveKid(), reloaded.getVerificationKeys().size());
+        return true;
+    }
+
+    // Claves públicas vigentes por kid, para publicarlas como JWKS; vacío cuando se firma con HS512
+    public Map<String, PublicKey> obtenerClavesPublicas() {
+        return keyRing.getPublicKeys();
     }
 
     public String generarToken(Authentication authentication) {
+        return generarToken(authentication, null);
+    }
+
+    /**
+     * Genera el token del usuario. Con app.jwt-self-contained=true y un userId conocido agrega
+     * id, roles y versión de token, suficientes para autenticar sin consultar la base de datos.
+     */
+    public String generarToken(Authentication authentication, UUID userId) {
         String username = authentication.getName();
         Date fechaActual = new Date();
 
-        return Jwts.builder()
+        JwtKeyRing ring = keyRing;
+        JwtBuilder builder = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, ring.getActiveKid())
                 .setSubject(username)
-                .setIssuedAt(fechaActual)
-                .signWith(key)
-                .compact();
+                .setIssuedAt(fechaActual);
+        if (jwtProperties.getJwtExpirationMilliseconds() > 0) {
+            builder.setExpiration(new Date(fechaActual.getTime() + jwtProperties.getJwtExpirationMilliseconds()));
+        }
+        if (jwtProperties.isJwtSelfContained() && userId != null) {
+            builder.claim(CLAIM_USER_ID, userId.toString())
+                    .claim(CLAIM_ROLES, authentication.getAuthorities().stream()
+                            .map(GrantedAuthority::getAuthority)
+                            .collect(Collectors.toList()))
+                    .claim(CLAIM_VERSION, revocationRegistry.currentVersion(userId));
+        }
+        return signTimer.record(() -> builder.signWith(ring.getSigningKey(), ring.getAlgorithm()).compact());
     }
 
-    public String obtenerUsernameDelJWT(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    // Indica si el filtro puede autenticar solo con los claims, sin consultar la base de datos
+    public boolean esAutocontenido(Claims claims) {
+        return jwtProperties.isJwtSelfContained() && claims.containsKey(CLAIM_USER_ID);
+    }
 
-        return claims.getSubject();
+    // Un token autocontenido queda revocado si su versión es menor a la mínima vigente del usuario
+    public boolean estaRevocado(Claims claims) {
+        Integer version = obtenerVersion(claims);
+        return version == null || revocationRegistry.isRevoked(obtenerUserId(claims), version);
     }
 
-    public boolean validarToken(String token) {
+    // Versión de token del claim "ver"; null si el token no la lleva
+    public Integer obtenerVersion(Claims claims) {
+        return claims.get(CLAIM_VERSION, Integer.class);
+    }
+
+    public AuthenticatedUser obtenerUsuarioDeClaims(Claims claims) {
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        List<GrantedAuthority> authorities = roles == null ? Collections.emptyList() : roles.stream()
+                .map(role -> new SimpleGrantedAuthority(String.valueOf(role)))
+                .collect(Collectors.toList());
+        return new AuthenticatedUser(obtenerUserId(claims), claims.getSubject(), "", authorities);
+    }
+
+    private UUID obtenerUserId(Claims claims) {
+        return UUID.fromString(claims.get(CLAIM_USER_ID, String.class));
+    }
+
+    /**
+     * Verifica firma y formato del token una sola vez y retorna sus claims. Los tokens verificados
+     * recientemente se resuelven desde caché sin repetir el HMAC ni el parseo del JSON.
+     */
+    public JwtVerificationResult verificarToken(String token) {
+        if (token == null || token.trim().isEmpty()) {
+            return JwtVerificationResult.invalid(JwtVerificationResult.Failure.EMPTY);
+        }
+
+        String digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return JwtVerificationResult.valid(cached);
+        }
+
+        long start = System.nanoTime();
+        JwtVerificationResult result = parse(token);
+        (result.isValid() ? verifyValidTimer : verifyInvalidTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (result.isValid()) {
+            verifiedTokens.put(digest, result.getClaims());
+        }
+        return result;
+    }
+
+    private JwtVerificationResult parse(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token);
-            return true;
+            return JwtVerificationResult.valid(parser.parseClaimsJws(token).getBody());
+        } catch (ExpiredJwtException ex) {
+            return JwtVerificationResult.invalid(JwtVerificationResult.Failure.EXPIRED);
         } catch (SecurityException ex) {
-            // Firma JWT inválida
-            return false;
+            return JwtVerificationResult.invalid(JwtVerificationResult.Failure.INVALID_SIGNATURE);
         } catch (MalformedJwtException ex) {
-            // Token JWT malformado
-            return false;
+            return JwtVerificationResult.invalid(JwtVerificationResult.Failure.MALFORMED);
         } catch (UnsupportedJwtException ex) {
-            // Token JWT no soportado
-            return false;
+            return JwtVerificationResult.invalid(JwtVerificationResult.Failure.UNSUPPORTED);
         } catch (IllegalArgumentException ex) {
-            // Claims JWT vacío
-            return false;
+            return JwtVerificationResult.invalid(JwtVerificationResult.Failure.EMPTY);
+        }
+    }
+
+    public String obtenerUsernameDelJWT(String token) {
+        JwtVerificationResult verification = verificarToken(token);
+        if (!verification.isValid()) {
+            throw new JwtException("Token JWT inválido: " + verification.getFailure());
+        }
+        return verification.getClaims().getSubject();
+    }
+
+    public boolean validarToken(String token) {
+        return verificarToken(token).isValid();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    // Resuelve la clave de verificación por el kid del encabezado; los tokens sin kid usan la clave activa
+    private final class KeyRingResolver extends SigningKeyResolverAdapter {
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            JwtKeyRing ring = keyRing;
+            String kid = header.getKeyId();
+            Key key = ring.getVerificationKey(kid == null ? ring.getActiveKid() : kid);
+            if (key == null) {
+                throw new SignatureException("El token fue firmado con una clave desconocida o retirada: " + kid);
+            }
+            return key;
+        }
+    }
+
+    // Cada entrada vive como máximo el TTL configurado y nunca más allá del "exp" del token
+    private static final class ClaimsExpiry implements Expiry<String, Claims> {
+        private final long maxTtlNanos;
+
+        private ClaimsExpiry(long maxTtlNanos) {
+            this.maxTtlNanos = maxTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxTtlNanos;
+            }
+            long untilExpiration = TimeUnit.MILLISECONDS.toNanos(expiration.getTime() - System.currentTimeMillis());
+            return Math.max(0, Math.min(maxTtlNanos, untilExpiration));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+package com.juan.spring.security;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Resultado de verificar un JWT: los claims si la firma y el formato son válidos, o el motivo del rechazo.
+ */
+public final class JwtVerificationResult {
+
+    public enum Failure {
+        INVALID_SIGNATURE,
+        MALFORMED,
+        EXPIRED,
+        UNSUPPORTED,
+        EMPTY
+    }
+
+    private final Claims claims;
+    private final Failure failure;
+
+    private JwtVerificationResult(Claims claims, Failure failure) {
+        this.claims = claims;
+        this.failure = failure;
+    }
+
+    public static JwtVerificationResult valid(Claims claims) {
+        return new JwtVerificationResult(claims, null);
+    }
+
+    public static JwtVerificationResult invalid(Failure failure) {
+        return new JwtVerificationResult(null, failure);
+    }
+
+    public boolean isValid() {
+        return failure == null;
+    }
+
+    public Claims getClaims() {
+        return claims;
+    }
+
+    public Failure getFailure() {
+        return failure;
+    }
+}
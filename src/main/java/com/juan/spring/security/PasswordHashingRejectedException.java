@@ -0,0 +1,18 @@
+package com.juan.spring.security;
+
+/**
+ * El pool de hashing de contraseñas está saturado; la petición debe reintentarse más tarde.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public PasswordHashingRejectedException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,85 @@
+package com.juan.spring.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.juan.spring.config.TokenVersionCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * Versión mínima de token aceptada por usuario. Los tokens autocontenidos llevan la versión
+ * vigente al emitirse; al desactivar un usuario o cambiar su contraseña se incrementa la columna
+ * {@code token_version} y los tokens anteriores dejan de ser válidos en todas las instancias.
+ * Para no consultar la base en cada petición la versión se cachea con un TTL corto, que es la demora
+ * máxima con la que otra instancia ve la revocación; la instancia que revoca la ve al confirmar.
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    public static final String CACHE_NAME = "tokenVersions";
+
+    // Versión de un usuario borrado: ningún token suyo es válido
+    public static final int DELETED = Integer.MAX_VALUE;
+
+    private final TokenVersionStore store;
+    private final Cache<UUID, Integer> versions;
+
+    public TokenRevocationRegistry(TokenVersionStore store, TokenVersionCacheProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this.store = store;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, CACHE_NAME);
+    }
+
+    // Versión con la que se emite un token nuevo: se lee de la base para no firmar con una ya revocada en otra instancia
+    public int currentVersion(UUID userId) {
+        int version = load(userId);
+        versions.put(userId, version);
+        return version;
+    }
+
+    public boolean isRevoked(UUID userId, int tokenVersion) {
+        return isRevoked(tokenVersion, versions.get(userId, this::load));
+    }
+
+    // Con la versión vigente ya leída, por ejemplo con R2DBC en la API reactiva
+    public static boolean isRevoked(int tokenVersion, int currentVersion) {
+        return currentVersion == DELETED || tokenVersion < currentVersion;
+    }
+
+    // Versión en caché, sin consultar la base; null si no está
+    public Integer cachedVersion(UUID userId) {
+        return versions.getIfPresent(userId);
+    }
+
+    public void remember(UUID userId, int version) {
+        versions.put(userId, version);
+    }
+
+    // Se llama tras incrementar token_version o borrar al usuario, dentro de la misma transacción
+    public void invalidate(UUID userId) {
+        versions.invalidate(userId);
+        // Evita que una lectura concurrente deje en caché la versión previa al commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.invalidate(userId);
+                }
+            });
+        }
+    }
+
+    private int load(UUID userId) {
+        return store.findTokenVersion(userId).orElse(DELETED);
+    }
+}
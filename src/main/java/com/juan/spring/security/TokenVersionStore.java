@@ -0,0 +1,14 @@
+package com.juan.spring.security;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Lee la versión vigente de los tokens de un usuario (columna {@code usuarios.token_version}).
+ */
+@FunctionalInterface
+public interface TokenVersionStore {
+
+    // Vacío si el usuario ya no existe
+    Optional<Integer> findTokenVersion(UUID userId);
+}
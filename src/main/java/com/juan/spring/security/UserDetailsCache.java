@@ -0,0 +1,59 @@
+package com.juan.spring.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.juan.spring.config.UserDetailsCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Function;
+
+/**
+ * Caché acotada por tamaño y TTL de los {@link AuthenticatedUser} que el filtro JWT reconstruye en cada petición.
+ * Las estadísticas se publican como métricas "cache.*" con tag cache=userDetails.
+ */
+@Component
+public class UserDetailsCache {
+
+    public static final String CACHE_NAME = "userDetails";
+
+    private final Cache<String, AuthenticatedUser> cache;
+
+    public UserDetailsCache(UserDetailsCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public AuthenticatedUser get(String correo, Function<String, AuthenticatedUser> loader) {
+        // Se entrega una copia: Spring Security borra la contraseña del principal tras autenticar
+        return cache.get(correo, loader).copy();
+    }
+
+    public void invalidate(String correo) {
+        if (correo == null) {
+            return;
+        }
+        cache.invalidate(correo);
+        // Evita que una lectura concurrente deje en caché datos previos al commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(correo);
+                }
+            });
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -4,10 +4,12 @@ import com.juan.spring.dto.LoginDto;
 import com.juan.spring.dto.SignUpDto;
 import com.juan.spring.dto.ValidationErrorResponse;
 import com.juan.spring.dto.JwtAuthResponse;
+import com.juan.spring.dto.RefreshTokenDto;
 
 public interface AuthService {
     JwtAuthResponse login(LoginDto loginDto);
     JwtAuthResponse register(SignUpDto signUpDto);
+    JwtAuthResponse refresh(RefreshTokenDto refreshTokenDto);
     ValidationErrorResponse validateLoginData(LoginDto loginDto);
     ValidationErrorResponse validateSignUpData(SignUpDto signUpDto);
 } 
\ No newline at end of file
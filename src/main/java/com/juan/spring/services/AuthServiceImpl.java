@@ -4,10 +4,16 @@ import com.juan.spring.dto.LoginDto;
 import com.juan.spring.dto.SignUpDto;
 import com.juan.spring.dto.ValidationErrorResponse;
 import com.juan.spring.dto.JwtAuthResponse;
+import com.juan.spring.dto.RefreshTokenDto;
 import com.juan.spring.entities.User;
 import com.juan.spring.repositories.UserRepository;
+import com.juan.spring.security.AuthenticatedUser;
+import com.juan.spring.security.CustomUserDetailsService;
 import com.juan.spring.security.JwtTokenProvider;
+import com.juan.spring.validation.UserInputValidator;
 import com.juan.spring.validation.ValidationPatterns;
+import com.juan.spring.config.MetricsConfig;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -18,9 +24,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.regex.Pattern;
+import java.util.UUID;
 
 @Service
+@Timed(value = MetricsConfig.AUTH_SERVICE_TIMER, histogram = true)
 public class AuthServiceImpl implements AuthService {
 
     @Autowired
@@ -35,8 +42,19 @@ public class AuthServiceImpl implements AuthService {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private LoginUpdateBuffer loginUpdateBuffer;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserInputValidator userInputValidator;
+
     @Override
-    @Transactional
     public JwtAuthResponse login(LoginDto loginDto) {
         ValidationErrorResponse validationErrors = validateLoginData(loginDto);
         if (!validationErrors.getErrors().isEmpty()) {
@@ -51,15 +69,13 @@ public class AuthServiceImpl implements AuthService {
         );
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generarToken(authentication);
         
-        User user = userRepository.findByCorreo(loginDto.getCorreo())
-            .orElseThrow(() -> new IllegalStateException("Usuario no encontrado"));
-        user.setToken(jwt);
-        user.setUltimoLogin(LocalDateTime.now());
-        userRepository.save(user);
-        
-        return new JwtAuthResponse(jwt);
+        UUID userId = resolveUserId(authentication, loginDto.getCorreo());
+        String jwt = tokenProvider.generarToken(authentication, userId);
+        // El último login y el token se escriben en segundo plano; la respuesta no espera por la base de datos
+        loginUpdateBuffer.record(userId, jwt, LocalDateTime.now());
+
+        return new JwtAuthResponse(jwt, refreshTokenService.issue(userId));
     }
 
     @Override
@@ -70,7 +86,7 @@ public class AuthServiceImpl implements AuthService {
             throw new IllegalArgumentException(validationErrors.getErrors().get(0));
         }
 
-        if (userRepository.findByCorreo(signUpDto.getCorreo()).isPresent()) {
+        if (!userService.isEmailAvailable(signUpDto.getCorreo(), null)) {
             throw new IllegalStateException("El correo " + signUpDto.getCorreo() + " ya está registrado");
         }
 
@@ -82,26 +98,44 @@ public class AuthServiceImpl implements AuthService {
         user.setCreado(LocalDateTime.now());
         user.setUltimoLogin(LocalDateTime.now());
 
+        // Se guarda primero para que el token pueda incluir el ID generado
+        user = userRepository.save(user);
+
         Authentication authentication = new UsernamePasswordAuthenticationToken(
             signUpDto.getCorreo(),
-            signUpDto.getContrasena()
+            signUpDto.getContrasena(),
+            CustomUserDetailsService.DEFAULT_AUTHORITIES
         );
-        String jwt = tokenProvider.generarToken(authentication);
+        String jwt = tokenProvider.generarToken(authentication, user.getId());
         user.setToken(jwt);
 
-        userRepository.save(user);
-        return new JwtAuthResponse(jwt);
+        return new JwtAuthResponse(jwt, refreshTokenService.issue(user.getId()));
     }
 
+    // Renueva el access token sin verificar la contraseña: ni AuthenticationManager ni BCrypt intervienen
     @Override
-    public ValidationErrorResponse validateLoginData(LoginDto loginDto) {
-        ValidationErrorResponse validationErrors = new ValidationErrorResponse();
+    public JwtAuthResponse refresh(RefreshTokenDto refreshTokenDto) {
+        if (refreshTokenDto == null || refreshTokenDto.getRefreshToken() == null
+                || refreshTokenDto.getRefreshToken().trim().isEmpty()) {
+            throw new IllegalArgumentException("El refresh token es requerido");
+        }
+        return refreshTokenService.rotate(refreshTokenDto.getRefreshToken().trim());
+    }
 
-        if (loginDto.getCorreo() == null || loginDto.getCorreo().trim().isEmpty()) {
-            validationErrors.addError(ValidationPatterns.EMAIL_ERROR_MESSAGE);
-        } else if (!isValidEmail(loginDto.getCorreo())) {
-            validationErrors.addError(ValidationPatterns.EMAIL_ERROR_MESSAGE);
+    private UUID resolveUserId(Authentication authentication, String correo) {
+        // El principal cargado por CustomUserDetailsService ya trae el ID; solo se consulta si no es así
+        if (authentication.getPrincipal() instanceof AuthenticatedUser) {
+            return ((AuthenticatedUser) authentication.getPrincipal()).getId();
         }
+        return userRepository.findByCorreo(correo)
+            .map(User::getId)
+            .orElseThrow(() -> new IllegalStateException("Usuario no encontrado"));
+    }
+
+    @Override
+    public ValidationErrorResponse validateLoginData(LoginDto loginDto) {
+        ValidationErrorResponse validationErrors = new ValidationErrorResponse();
+        userInputValidator.validateEmail(loginDto.getCorreo(), true, validationErrors);
 
         if (loginDto.getContrasena() == null || loginDto.getContrasena().trim().isEmpty()) {
             validationErrors.addError(ValidationPatterns.PASSWORD_ERROR_MESSAGE);
@@ -113,18 +147,8 @@ public class AuthServiceImpl implements AuthService {
     @Override
     public ValidationErrorResponse validateSignUpData(SignUpDto signUpDto) {
         ValidationErrorResponse validationErrors = new ValidationErrorResponse();
-
-        if (signUpDto.getCorreo() == null || signUpDto.getCorreo().trim().isEmpty()) {
-            validationErrors.addError(ValidationPatterns.EMAIL_ERROR_MESSAGE);
-        } else if (!isValidEmail(signUpDto.getCorreo())) {
-            validationErrors.addError(ValidationPatterns.EMAIL_ERROR_MESSAGE);
-        }
-
-        if (signUpDto.getContrasena() == null || signUpDto.getContrasena().trim().isEmpty()) {
-            validationErrors.addError(ValidationPatterns.PASSWORD_ERROR_MESSAGE);
-        } else if (!isValidPassword(signUpDto.getContrasena())) {
-            validationErrors.addError(ValidationPatterns.PASSWORD_ERROR_MESSAGE);
-        }
+        userInputValidator.validateEmail(signUpDto.getCorreo(), true, validationErrors);
+        userInputValidator.validatePassword(signUpDto.getContrasena(), true, validationErrors);
 
         if (signUpDto.getName() == null || signUpDto.getName().trim().isEmpty()) {
             validationErrors.addError("El nombre es requerido");
@@ -132,12 +156,4 @@ public class AuthServiceImpl implements AuthService {
 
         return validationErrors;
     }
-
-    private boolean isValidEmail(String email) {
-        return Pattern.matches(ValidationPatterns.EMAIL_PATTERN, email);
-    }
-
-    private boolean isValidPassword(String password) {
-        return Pattern.matches(ValidationPatterns.PASSWORD_PATTERN, password);
-    }
 } 
\ No newline at end of file
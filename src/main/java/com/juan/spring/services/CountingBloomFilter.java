@@ -0,0 +1,83 @@
+package com.juan.spring.services;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Filtro de Bloom con contadores de 8 bits en lugar de bits, para poder quitar elementos.
+ * Puede dar falsos positivos pero nunca falsos negativos para elementos agregados y no quitados,
+ * siempre que solo se quiten elementos que se agregaron: quitar un falso positivo resta los contadores
+ * de otros elementos. Un contador que llega a 255 queda fijo para no generar falsos negativos al restar.
+ */
+class CountingBloomFilter {
+
+    private static final int MAX_COUNT = 0xFF;
+
+    private final byte[] counters;
+    private final int hashFunctions;
+
+    CountingBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        long size = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.counters = new byte[(int) Math.min(Math.max(size, 64), Integer.MAX_VALUE - 8)];
+        this.hashFunctions = Math.max(1, (int) Math.round((double) counters.length / n * Math.log(2)));
+    }
+
+    synchronized void add(String value) {
+        long hash = hash(value);
+        for (int i = 0; i < hashFunctions; i++) {
+            int index = index(hash, i);
+            int count = counters[index] & MAX_COUNT;
+            if (count < MAX_COUNT) {
+                counters[index] = (byte) (count + 1);
+            }
+        }
+    }
+
+    // El llamador garantiza que el valor se agregó; mightContain solo descarta los que seguro no están
+    synchronized void remove(String value) {
+        if (!mightContain(value)) {
+            return;
+        }
+        long hash = hash(value);
+        for (int i = 0; i < hashFunctions; i++) {
+            int index = index(hash, i);
+            int count = counters[index] & MAX_COUNT;
+            if (count < MAX_COUNT) {
+                counters[index] = (byte) (count - 1);
+            }
+        }
+    }
+
+    synchronized boolean mightContain(String value) {
+        long hash = hash(value);
+        for (int i = 0; i < hashFunctions; i++) {
+            if (counters[index(hash, i)] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Doble hashing (Kirsch-Mitzenmacher): las k posiciones salen de las dos mitades de un hash de 64 bits
+    private int index(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int combined = h1 + i * h2;
+        return (combined & Integer.MAX_VALUE) % counters.length;
+    }
+
+    // FNV-1a de 64 bits sobre UTF-8 con el mezclado final de MurmurHash3
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,12 @@
+package com.juan.spring.services;
+
+/**
+ * El refresh token no existe, venció, fue revocado o ya se había usado. Es un {@link IllegalStateException}
+ * para que los controladores lo traten como cualquier otra credencial inválida (401).
+ */
+public class InvalidRefreshTokenException extends IllegalStateException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,104 @@
+package com.juan.spring.services;
+
+import com.juan.spring.config.LoginUpdateProperties;
+import com.juan.spring.entities.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Acumula en memoria el último login y el token de cada usuario y los escribe periódicamente
+ * en un único UPDATE por lotes. Varios logins del mismo usuario entre dos escrituras se
+ * combinan en uno solo, conservando el más reciente. El UPDATE incrementa la versión del
+ * usuario, porque cambia su representación (y su ETag), y desaloja al usuario de la caché de segundo nivel.
+ */
+@Component
+public class LoginUpdateBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginUpdateBuffer.class);
+
+    private static final String UPDATE_SQL = "update usuarios set token = ?, ultimo_login = ?, version = version + 1 where id = ?";
+
+    private final ConcurrentHashMap<UUID, PendingLogin> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LoginUpdateProperties properties;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public void record(UUID userId, String token, LocalDateTime ultimoLogin) {
+        pending.merge(userId, new PendingLogin(token, ultimoLogin), PendingLogin::latest);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "#{@loginUpdateProperties.flushInterval.toMillis()}")
+    public void flush() {
+        // Cada entrada se retira de forma atómica: un login que llegue durante la escritura queda para el siguiente ciclo
+        List<Map.Entry<UUID, PendingLogin>> batch = new ArrayList<>();
+        for (UUID userId : pending.keySet()) {
+            PendingLogin login = pending.remove(userId);
+            if (login != null) {
+                batch.add(new AbstractMap.SimpleImmutableEntry<>(userId, login));
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch, properties.getBatchSize(), (ps, entry) -> {
+                ps.setString(1, entry.getValue().token);
+                ps.setTimestamp(2, Timestamp.valueOf(entry.getValue().ultimoLogin));
+                ps.setString(3, entry.getKey().toString());
+            });
+            // El UPDATE no pasa por Hibernate: sin desalojar, la caché de segundo nivel seguiría con la versión anterior
+            Cache secondLevelCache = entityManagerFactory.getCache();
+            batch.forEach(entry -> secondLevelCache.evict(User.class, entry.getKey()));
+        } catch (RuntimeException e) {
+            // Se devuelven al buffer sin pisar logins más recientes registrados mientras tanto
+            batch.forEach(entry -> pending.merge(entry.getKey(), entry.getValue(), PendingLogin::latest));
+            log.warn("No se pudieron guardar {} actualizaciones de login; se reintentará", batch.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+
+    private static final class PendingLogin {
+        private final String token;
+        private final LocalDateTime ultimoLogin;
+
+        private PendingLogin(String token, LocalDateTime ultimoLogin) {
+            this.token = token;
+            this.ultimoLogin = ultimoLogin;
+        }
+
+        private static PendingLogin latest(PendingLogin a, PendingLogin b) {
+            return b.ultimoLogin.isBefore(a.ultimoLogin) ? a : b;
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.juan.spring.services;
 
 import com.juan.spring.entities.Phone;
+import com.juan.spring.entities.User;
 import com.juan.spring.repositories.PhoneRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,9 +17,15 @@ import java.util.UUID;
 @Service
 public class PhoneServiceImpl implements PhoneService {
 
+    // Rol de la colección User.telefonos en la caché de segundo nivel
+    private static final String USER_PHONES_ROLE = User.class.getName() + ".telefonos";
+
     @Autowired
     private PhoneRepository phoneRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Override
     @Transactional(readOnly = true)
     public List<Phone> getPhonesByUserId(UUID userId) {
@@ -31,7 +41,9 @@ public class PhoneServiceImpl implements PhoneService {
     @Override
     @Transactional
     public Phone createPhone(Phone phone) {
-        return phoneRepository.save(phone);
+        Phone saved = phoneRepository.save(phone);
+        evictUserPhones(saved.getUser());
+        return saved;
     }
 
     @Override
@@ -69,6 +81,7 @@ public class PhoneServiceImpl implements PhoneService {
     @Override
     @Transactional
     public void deletePhone(Long id) {
+        phoneRepository.findById(id).map(Phone::getUser).ifPresent(this::evictUserPhones);
         phoneRepository.deleteById(id);
     }
 
@@ -76,5 +89,18 @@ public class PhoneServiceImpl implements PhoneService {
     @Transactional
     public void deletePhonesByUserId(UUID userId) {
         phoneRepository.deleteByUserId(userId);
+        evictUserPhones(userId);
+    }
+
+    // Hibernate no actualiza la colección cacheada del usuario cuando el teléfono se crea o borra por su lado
+    private void evictUserPhones(User user) {
+        if (user != null && user.getId() != null) {
+            evictUserPhones(user.getId());
+        }
+    }
+
+    private void evictUserPhones(UUID userId) {
+        entityManager.getEntityManagerFactory().getCache().unwrap(org.hibernate.Cache.class)
+                .evictCollectionData(USER_PHONES_ROLE, userId);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,158 @@
+package com.juan.spring.services;
+
+import com.juan.spring.config.RefreshTokenProperties;
+import com.juan.spring.dto.JwtAuthResponse;
+import com.juan.spring.entities.RefreshToken;
+import com.juan.spring.entities.User;
+import com.juan.spring.repositories.RefreshTokenRepository;
+import com.juan.spring.repositories.UserRepository;
+import com.juan.spring.security.CustomUserDetailsService;
+import com.juan.spring.security.JwtTokenProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Emite y rota los refresh tokens. Cambiar un refresh token por un access token nuevo cuesta una búsqueda por
+ * índice, un UPDATE condicional y un INSERT, sin BCrypt: los clientes de larga duración solo envían la
+ * contraseña al iniciar sesión.
+ *
+ * <p>Cada uso rota el token. Si llega uno ya usado, alguien conserva una copia (o dos peticiones compitieron
+ * por el mismo) y se revoca la familia completa, incluido el token vigente; el cliente debe volver a
+ * iniciar sesión.</p>
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+    private static final String INVALID_MESSAGE = "Refresh token inválido o expirado";
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private RefreshTokenProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter rotatedCounter;
+    private Counter rejectedCounter;
+    private Counter reusedCounter;
+
+    @PostConstruct
+    public void init() {
+        this.rotatedCounter = Counter.builder("auth.refresh").tag("result", "rotated")
+                .description("Intercambios de refresh token").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.refresh").tag("result", "rejected")
+                .description("Intercambios de refresh token").register(meterRegistry);
+        this.reusedCounter = Counter.builder("auth.refresh").tag("result", "reused")
+                .description("Intercambios de refresh token").register(meterRegistry);
+    }
+
+    // Inicia una familia nueva; se llama tras un login o registro
+    @Transactional
+    public String issue(UUID userId) {
+        return issue(userId, UUID.randomUUID());
+    }
+
+    /**
+     * Cambia un refresh token por un access token y un refresh token nuevos de la misma familia. Las
+     * revocaciones por reutilización se confirman aunque la petición termine en error.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public JwtAuthResponse rotate(String token) {
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(this::rejected);
+        if (stored.getExpira().isBefore(LocalDateTime.now())) {
+            throw rejected();
+        }
+        if (stored.isUsado() || refreshTokenRepository.markUsed(stored.getId()) == 0) {
+            refreshTokenRepository.deleteByFamilia(stored.getFamilia());
+            reusedCounter.increment();
+            log.warn("Refresh token reutilizado; se revoca la familia {} del usuario {}",
+                    stored.getFamilia(), stored.getUsuarioId());
+            throw new InvalidRefreshTokenException(INVALID_MESSAGE);
+        }
+
+        User user = userRepository.findById(stored.getUsuarioId()).orElse(null);
+        if (user == null || Boolean.FALSE.equals(user.getEstaActivo())) {
+            refreshTokenRepository.deleteByFamilia(stored.getFamilia());
+            throw rejected();
+        }
+
+        String accessToken = tokenProvider.generarToken(new UsernamePasswordAuthenticationToken(
+                user.getCorreo(), null, CustomUserDetailsService.DEFAULT_AUTHORITIES), user.getId());
+        String refreshToken = issue(user.getId(), stored.getFamilia());
+        rotatedCounter.increment();
+        return new JwtAuthResponse(accessToken, refreshToken);
+    }
+
+    // Cambio de contraseña, desactivación o borrado: ningún refresh token del usuario vuelve a aceptarse
+    @Transactional
+    public void revokeAll(UUID userId) {
+        refreshTokenRepository.deleteByUsuarioId(userId);
+    }
+
+    @Scheduled(fixedDelayString = "#{@refreshTokenProperties.cleanupInterval.toMillis()}",
+            initialDelayString = "#{@refreshTokenProperties.cleanupInterval.toMillis()}")
+    @Transactional
+    public int purgeExpired() {
+        return refreshTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private String issue(UUID userId, UUID familia) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setUsuarioId(userId);
+        refreshToken.setFamilia(familia);
+        refreshToken.setExpira(LocalDateTime.now().plus(properties.getTtl()));
+        refreshTokenRepository.save(refreshToken);
+        return token;
+    }
+
+    private InvalidRefreshTokenException rejected() {
+        rejectedCounter.increment();
+        return new InvalidRefreshTokenException(INVALID_MESSAGE);
+    }
+
+    // El token ya tiene 256 bits aleatorios: basta un SHA-256 sin sal para no guardarlo en claro
+    private static String hash(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.juan.spring.services;
+
+import com.juan.spring.config.EmailFilterProperties;
+import com.juan.spring.repositories.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.stream.Stream;
+
+/**
+ * Filtro de Bloom en memoria con los correos normalizados registrados. Si responde que un correo no está,
+ * la consulta a la base se omite; si responde que puede estar, se confirma con una consulta de existencia.
+ * Se carga al iniciar la aplicación y se reconstruye cada app.users.email-filter.rebuild-interval para
+ * descartar correos eliminados o cambiados que el filtro no pudo quitar.
+ */
+@Component
+public class RegisteredEmailFilter {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EmailFilterProperties properties;
+
+    private final Object lock = new Object();
+    private final Counter negativeCounter;
+    private final Counter positiveCounter;
+
+    // Nulo hasta la primera carga: mientras tanto todos los correos se consultan en la base
+    private volatile CountingBloomFilter filter;
+
+    // Filtro en reconstrucción; recibe también los correos registrados mientras se carga
+    private CountingBloomFilter building;
+
+    // Cada reconstrucción recibe una generación al empezar a leer la tabla. Un filtro de generación g
+    // contiene todos los correos confirmados antes de esa lectura
+    private long generation;
+    private long filterGeneration;
+    private long buildingGeneration;
+
+    public RegisteredEmailFilter(MeterRegistry meterRegistry) {
+        this.negativeCounter = Counter.builder("users.email.filter").tag("result", "negative")
+                .description("Consultas de correo respondidas sin ir a la base").register(meterRegistry);
+        this.positiveCounter = Counter.builder("users.email.filter").tag("result", "positive")
+                .description("Consultas de correo que requieren confirmar en la base").register(meterRegistry);
+    }
+
+    public boolean mightBeRegistered(String correoNormalizado) {
+        CountingBloomFilter current = filter;
+        if (current != null && !current.mightContain(correoNormalizado)) {
+            negativeCounter.increment();
+            return false;
+        }
+        positiveCounter.increment();
+        return true;
+    }
+
+    /**
+     * Se agrega al hacer flush, para que la misma transacción ya lo vea, y otra vez después del commit en los
+     * filtros que empezaron a leer la tabla después del flush: esa lectura no incluye una fila sin confirmar.
+     * Agregarlo de más solo deja un falso positivo hasta la próxima reconstrucción.
+     */
+    public void registered(String correoNormalizado) {
+        if (correoNormalizado == null) {
+            return;
+        }
+        long seen;
+        synchronized (lock) {
+            if (filter != null) {
+                filter.add(correoNormalizado);
+            }
+            if (building != null) {
+                building.add(correoNormalizado);
+            }
+            seen = generation;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    synchronized (lock) {
+                        if (filter != null && filterGeneration > seen) {
+                            filter.add(correoNormalizado);
+                        }
+                        if (building != null && buildingGeneration > seen) {
+                            building.add(correoNormalizado);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Se quita solo después del commit: si la transacción se revierte (también en los reintentos por conflicto
+     * de versión) el correo sigue registrado. Además solo se quita de un filtro que leyó la tabla antes del
+     * commit y por lo tanto lo contiene; restar un correo que el filtro no tiene bajaría los contadores de
+     * otros y daría falsos negativos. Fuera de una transacción no se quita y lo descarta la reconstrucción.
+     */
+    public void removed(String correoNormalizado) {
+        if (correoNormalizado == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        // El flush ocurre antes del commit: un filtro de esta generación o anterior leyó la fila confirmada
+        long seen;
+        synchronized (lock) {
+            seen = generation;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // El filtro en reconstrucción puede no haberlo leído todavía: se deja como falso positivo
+                synchronized (lock) {
+                    if (filter != null && filterGeneration <= seen) {
+                        filter.remove(correoNormalizado);
+                    }
+                }
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "#{@emailFilterProperties.rebuildInterval.toMillis()}",
+            initialDelayString = "#{@emailFilterProperties.rebuildInterval.toMillis()}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        // Se dimensiona con holgura sobre los usuarios actuales para no degradar la tasa de falsos positivos
+        long users = userRepository.count();
+        int capacity = (int) Math.min(Integer.MAX_VALUE / 16, Math.max(properties.getExpectedInsertions(), users * 2));
+        CountingBloomFilter fresh = new CountingBloomFilter(capacity, properties.getFalsePositiveRate());
+        long freshGeneration;
+        synchronized (lock) {
+            building = fresh;
+            freshGeneration = ++generation;
+            buildingGeneration = freshGeneration;
+        }
+        try (Stream<String> correos = userRepository.streamCorreosNormalizados()) {
+            correos.forEach(fresh::add);
+            synchronized (lock) {
+                filter = fresh;
+                filterGeneration = freshGeneration;
+            }
+        } finally {
+            synchronized (lock) {
+                building = null;
+            }
+        }
+    }
+}
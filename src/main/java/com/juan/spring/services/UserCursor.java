@@ -0,0 +1,59 @@
+package com.juan.spring.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+import com.juan.spring.entities.User;
+
+/**
+ * Cursor opaco para la paginación por keyset del listado de usuarios.
+ * Codifica la posición (creado, id) del último usuario de una página en Base64 URL-safe.
+ */
+public final class UserCursor {
+
+    private static final String SEPARATOR = "|";
+    private static final String INVALID_CURSOR_MESSAGE = "El cursor de paginación no es válido";
+
+    private final LocalDateTime creado;
+    private final UUID id;
+
+    public UserCursor(LocalDateTime creado, UUID id) {
+        this.creado = creado;
+        this.id = id;
+    }
+
+    public static UserCursor of(User user) {
+        return new UserCursor(user.getCreado(), user.getId());
+    }
+
+    public static UserCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException(INVALID_CURSOR_MESSAGE);
+            }
+            return new UserCursor(
+                LocalDateTime.parse(raw.substring(0, separator)),
+                UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException(INVALID_CURSOR_MESSAGE);
+        }
+    }
+
+    public String encode() {
+        String raw = creado + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getCreado() {
+        return creado;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+}
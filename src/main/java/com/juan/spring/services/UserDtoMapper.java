@@ -0,0 +1,50 @@
+package com.juan.spring.services;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.juan.spring.dto.PhoneDto;
+import com.juan.spring.dto.UserDto;
+import com.juan.spring.entities.Phone;
+import com.juan.spring.entities.User;
+
+/**
+ * Conversión de entidades a DTOs compartida por la API servlet y la API reactiva de lectura,
+ * para que ambas serialicen exactamente los mismos campos.
+ */
+public final class UserDtoMapper {
+
+    private UserDtoMapper() {
+    }
+
+    public static UserDto toDto(User user) {
+        UserDto dto = new UserDto();
+        dto.setId(user.getId());
+        dto.setNombre(user.getNombre());
+        dto.setCorreo(user.getCorreo());
+        dto.setEstaActivo(user.getEstaActivo());
+        dto.setCreado(user.getCreado());
+        dto.setModificado(user.getModificado());
+        dto.setUltimoLogin(user.getUltimoLogin());
+        dto.setToken(user.getToken());
+        dto.setVersion(user.getVersion());
+
+        if (user.getTelefonos() != null) {
+            List<PhoneDto> phoneDtos = user.getTelefonos().stream()
+                .map(UserDtoMapper::toDto)
+                .collect(Collectors.toList());
+            dto.setTelefonos(phoneDtos);
+        }
+
+        return dto;
+    }
+
+    public static PhoneDto toDto(Phone phone) {
+        PhoneDto phoneDto = new PhoneDto();
+        phoneDto.setId(phone.getId());
+        phoneDto.setNumero(phone.getNumero());
+        phoneDto.setCodigoCiudad(phone.getCodigoCiudad());
+        phoneDto.setCodigoPais(phone.getCodigoPais());
+        return phoneDto;
+    }
+}
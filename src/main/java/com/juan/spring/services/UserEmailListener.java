@@ -0,0 +1,50 @@
+package com.juan.spring.services;
+
+import com.juan.spring.entities.User;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import java.util.Objects;
+
+/**
+ * Mantiene {@link RegisteredEmailFilter} al día con cualquier escritura JPA de usuarios
+ * (alta individual o masiva, cambio de correo y eliminación). Los callbacks corren al hacer flush; el filtro
+ * aplica las bajas recién después del commit. Hibernate lo crea a través de Spring
+ * mientras construye el EntityManagerFactory, por eso el filtro (que depende del repositorio) se
+ * resuelve recién al usarlo.
+ */
+public class UserEmailListener {
+
+    @Autowired
+    private ObjectProvider<RegisteredEmailFilter> registeredEmailFilter;
+
+    @PostLoad
+    void loaded(User user) {
+        user.setCorreoNormalizadoGuardado(user.getCorreoNormalizado());
+    }
+
+    @PostPersist
+    void persisted(User user) {
+        registeredEmailFilter.getObject().registered(user.getCorreoNormalizado());
+        user.setCorreoNormalizadoGuardado(user.getCorreoNormalizado());
+    }
+
+    @PostUpdate
+    void updated(User user) {
+        String previous = user.getCorreoNormalizadoGuardado();
+        if (!Objects.equals(previous, user.getCorreoNormalizado())) {
+            registeredEmailFilter.getObject().registered(user.getCorreoNormalizado());
+            registeredEmailFilter.getObject().removed(previous);
+            user.setCorreoNormalizadoGuardado(user.getCorreoNormalizado());
+        }
+    }
+
+    @PostRemove
+    void removed(User user) {
+        registeredEmailFilter.getObject().removed(user.getCorreoNormalizadoGuardado());
+    }
+}
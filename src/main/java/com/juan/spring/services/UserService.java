@@ -2,21 +2,37 @@ package com.juan.spring.services;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import com.juan.spring.entities.User;
 import com.juan.spring.dto.UserDto;
+import com.juan.spring.dto.UserBatchResultDto;
 import com.juan.spring.dto.UserCreateUpdateDto;
+import com.juan.spring.dto.UserPageDto;
 import com.juan.spring.dto.ValidationErrorResponse;
 
 public interface UserService {
 
-    // GET - Obtener todos los usuarios
+    // GET - Obtener todos los usuarios (limitado a app.users.pagination.unpaged-max)
     List<User> getAllUsers();
 
+    // GET - Obtener una página de usuarios a partir de un cursor opaco
+    UserPageDto getUsersPage(String cursor, Integer size);
+
+    // GET - Huella de una página (IDs y versiones de sus usuarios), usada como ETag de la colección
+    String getUsersPageVersion(String cursor, Integer size);
+
+    // GET - Recorrer todos los usuarios como DTO sin cargarlos juntos en memoria
+    void exportUsers(Consumer<UserDto> consumer);
+
     // GET - Obtener un usuario por ID
     Optional<User> getUserById(UUID id);
 
+    // GET - Versión actual de un usuario (origen de su ETag), sin cargar la entidad
+    Optional<Long> getUserVersion(UUID id);
+
     // GET - Obtener un usuario por correo
     Optional<User> getUserByEmail(String email);
 
@@ -40,8 +56,13 @@ public interface UserService {
     UserDto convertToDto(User user);
     User convertToEntity(UserCreateUpdateDto dto);
     UserDto createUserWithValidation(UserCreateUpdateDto userDto);
-    UserDto updateUserWithValidation(UUID id, UserCreateUpdateDto userDto);
-    UserDto partialUpdateUserWithValidation(UUID id, UserCreateUpdateDto userDto);
+
+    // POST /batch - Importación masiva con reporte por fila
+    UserBatchResultDto importUsers(List<UserCreateUpdateDto> userDtos);
+
+    // PUT/PATCH con validación; expectedVersions son las versiones de If-Match, o null para no exigir ninguna
+    UserDto updateUserWithValidation(UUID id, UserCreateUpdateDto userDto, Set<Long> expectedVersions);
+    UserDto partialUpdateUserWithValidation(UUID id, UserCreateUpdateDto userDto, Set<Long> expectedVersions);
     boolean isEmailAvailable(String email, UUID excludeUserId);
 
 }
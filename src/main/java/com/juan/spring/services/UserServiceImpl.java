@@ -3,34 +3,72 @@ package com.juan.spring.services;
 import com.juan.spring.entities.User;
 import com.juan.spring.entities.Phone;
 import com.juan.spring.repositories.UserRepository;
+import com.juan.spring.repositories.UserVersion;
 import com.juan.spring.dto.UserDto;
+import com.juan.spring.dto.UserBatchResultDto;
+import com.juan.spring.dto.UserBatchRowDto;
 import com.juan.spring.dto.UserCreateUpdateDto;
+import com.juan.spring.dto.UserPageDto;
 import com.juan.spring.dto.ValidationErrorResponse;
 import com.juan.spring.dto.PhoneDto;
+import com.juan.spring.validation.EmailNormalizer;
+import com.juan.spring.validation.UserInputValidator;
 import com.juan.spring.validation.ValidationPatterns;
+import com.juan.spring.config.PaginationProperties;
+import com.juan.spring.config.UserBatchProperties;
+import com.juan.spring.config.UserUpdateProperties;
+import com.juan.spring.security.BoundedPasswordEncoder;
+import com.juan.spring.security.CustomUserDetailsService;
 import com.juan.spring.security.JwtTokenProvider;
+import com.juan.spring.security.TokenRevocationRegistry;
+import com.juan.spring.security.UserDetailsCache;
+import com.juan.spring.config.MetricsConfig;
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.CacheMode;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.regex.Pattern;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = MetricsConfig.USER_SERVICE_TIMER, histogram = true)
 public class UserServiceImpl implements UserService {
 
-    @Autowired
-    private UserRepository userRepository;
+    private static final int EMAIL_LOOKUP_CHUNK = 1000;
 
     @Autowired
-    private PhoneService phoneService;
+    private UserRepository userRepository;
 
     @Autowired
     private JwtTokenProvider tokenProvider;
@@ -38,16 +76,158 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PaginationProperties paginationProperties;
+
+    @Autowired
+    private UserBatchProperties userBatchProperties;
+
+    @Autowired
+    private UserUpdateProperties userUpdateProperties;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private RegisteredEmailFilter registeredEmailFilter;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserInputValidator userInputValidator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Override
     @Transactional(readOnly = true)
     public List<User> getAllUsers() {
-        return (List<User>) userRepository.findAll();
+        List<User> users = userRepository.findFirstPage(PageRequest.of(0, paginationProperties.getUnpagedMax()));
+        fetchTelefonos(users);
+        return users;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserPageDto getUsersPage(String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        // Se pide un registro extra para saber si existe una página siguiente
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<User> users;
+        if (cursor == null || cursor.trim().isEmpty()) {
+            users = userRepository.findFirstPage(limit);
+        } else {
+            UserCursor position = UserCursor.decode(cursor);
+            users = userRepository.findPageAfter(position.getCreado(), position.getId(), limit);
+        }
+
+        String nextCursor = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            nextCursor = UserCursor.of(users.get(pageSize - 1)).encode();
+        }
+        fetchTelefonos(users);
+
+        List<UserDto> usuarios = users.stream()
+            .map(this::convertToDto)
+            .collect(Collectors.toList());
+        return new UserPageDto(usuarios, nextCursor, pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getUsersPageVersion(String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<UserVersion> versions;
+        if (cursor == null || cursor.trim().isEmpty()) {
+            versions = userRepository.findFirstPageVersions(limit);
+        } else {
+            UserCursor position = UserCursor.decode(cursor);
+            versions = userRepository.findPageVersionsAfter(position.getCreado(), position.getId(), limit);
+        }
+
+        // El registro extra solo indica si hay página siguiente, igual que en getUsersPage
+        boolean hasNext = versions.size() > pageSize;
+        StringBuilder fingerprint = new StringBuilder().append(pageSize).append('|').append(hasNext);
+        for (UserVersion version : hasNext ? versions.subList(0, pageSize) : versions) {
+            fingerprint.append('|').append(version.getId()).append(':').append(version.getVersion());
+        }
+        return sha256(fingerprint.toString());
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportUsers(Consumer<UserDto> consumer) {
+        // Sin caché de segundo nivel en toda la sesión: una exportación completa desplazaría a los usuarios
+        // frecuentes. Un hint en la consulta no basta, scroll() restaura el modo antes de cargar filas y teléfonos
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode previous = session.getCacheMode();
+        session.setCacheMode(CacheMode.IGNORE);
+        try (Stream<User> users = userRepository.streamAll()) {
+            Iterator<User> iterator = users.iterator();
+            int processed = 0;
+            while (iterator.hasNext()) {
+                consumer.accept(convertToDto(iterator.next()));
+                // Liberar del contexto de persistencia cada lote ya escrito
+                if (++processed % UserRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        } finally {
+            session.setCacheMode(previous);
+        }
+    }
+
+    // Carga los teléfonos de todos los usuarios con una consulta adicional en lugar de una por usuario
+    private void fetchTelefonos(List<User> users) {
+        if (!users.isEmpty()) {
+            userRepository.fetchTelefonos(users.stream().map(User::getId).collect(Collectors.toList()));
+        }
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return paginationProperties.getDefaultSize();
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor a 0");
+        }
+        return Math.min(size, paginationProperties.getMaxSize());
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<User> getUserById(UUID id) {
-        return userRepository.findById(id);
+        // Por ID y no con una consulta, para que usuario, colección y teléfonos salgan de la caché de segundo nivel
+        Optional<User> user = userRepository.findById(id);
+        user.ifPresent(found -> Hibernate.initialize(found.getTelefonos()));
+        return user;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> getUserVersion(UUID id) {
+        // Con el usuario en la caché de segundo nivel la revalidación no llega a la base de datos
+        return userRepository.findById(id).map(User::getVersion);
     }
 
     @Override
@@ -65,35 +245,28 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public User updateUser(UUID id, User userDetails) {
-        User user = userRepository.findById(id)
+        return replaceUser(id, userDetails, null);
+    }
+
+    private User replaceUser(UUID id, User userDetails, Set<Long> expectedVersions) {
+        User user = userRepository.findWithTelefonosById(id)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con id: " + id));
+        checkVersion(user, expectedVersions);
+        userDetailsCache.invalidate(user.getCorreo());
+        revokeTokensIfNeeded(user, userDetails);
 
         // Actualizar campos básicos
         user.setNombre(userDetails.getNombre());
         user.setCorreo(userDetails.getCorreo());
         user.setEstaActivo(userDetails.getEstaActivo());
+        if (userDetails.getContrasena() != null) {
+            user.setContrasena(userDetails.getContrasena());
+        }
         user.setModificado(LocalDateTime.now());
+        userDetailsCache.invalidate(user.getCorreo());
 
-        // Manejar teléfonos
         if (userDetails.getTelefonos() != null) {
-            for (Phone phoneDetails : userDetails.getTelefonos()) {
-                if (phoneDetails.getId() != null) {
-                    // Verificar si el teléfono pertenece al usuario
-                    Phone existingPhone = phoneService.getPhoneById(phoneDetails.getId())
-                            .orElseThrow(() -> new RuntimeException("Teléfono no encontrado con id: " + phoneDetails.getId()));
-                    
-                    if (!existingPhone.getUser().getId().equals(id)) {
-                        throw new RuntimeException("El teléfono no pertenece al usuario");
-                    }
-                    
-                    // Actualizar teléfono existente
-                    phoneService.updatePhone(phoneDetails.getId(), phoneDetails);
-                } else {
-                    // Crear nuevo teléfono
-                    phoneDetails.setUser(user);
-                    phoneService.createPhone(phoneDetails);
-                }
-            }
+            reconcilePhones(user, userDetails.getTelefonos(), true);
         }
 
         return userRepository.save(user);
@@ -102,8 +275,15 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public User partialUpdateUser(UUID id, User userDetails) {
-        User user = userRepository.findById(id)
+        return mergeUser(id, userDetails, null);
+    }
+
+    private User mergeUser(UUID id, User userDetails, Set<Long> expectedVersions) {
+        User user = userRepository.findWithTelefonosById(id)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con id: " + id));
+        checkVersion(user, expectedVersions);
+        userDetailsCache.invalidate(user.getCorreo());
+        revokeTokensIfNeeded(user, userDetails);
 
         if (userDetails.getNombre() != null) {
             user.setNombre(userDetails.getNombre());
@@ -114,95 +294,143 @@ public class UserServiceImpl implements UserService {
         if (userDetails.getEstaActivo() != null) {
             user.setEstaActivo(userDetails.getEstaActivo());
         }
+        if (userDetails.getContrasena() != null) {
+            user.setContrasena(userDetails.getContrasena());
+        }
         user.setModificado(LocalDateTime.now());
+        userDetailsCache.invalidate(user.getCorreo());
 
-        // Manejar teléfonos
         if (userDetails.getTelefonos() != null) {
-            for (Phone phoneDetails : userDetails.getTelefonos()) {
-                if (phoneDetails.getId() != null) {
-                    // Verificar si el teléfono pertenece al usuario
-                    Phone existingPhone = phoneService.getPhoneById(phoneDetails.getId())
-                            .orElseThrow(() -> new RuntimeException("Teléfono no encontrado con id: " + phoneDetails.getId()));
-                    
-                    if (!existingPhone.getUser().getId().equals(id)) {
-                        throw new RuntimeException("El teléfono no pertenece al usuario");
-                    }
-                    
-                    // Actualizar teléfono existente
-                    phoneService.updatePhone(phoneDetails.getId(), phoneDetails);
-                } else {
-                    // Crear nuevo teléfono
-                    phoneDetails.setUser(user);
-                    phoneService.createPhone(phoneDetails);
-                }
-            }
+            reconcilePhones(user, userDetails.getTelefonos(), false);
         }
 
         return userRepository.save(user);
     }
 
+    // La versión cargada es la que Hibernate compara al hacer flush, así que si coincide con If-Match
+    // cualquier escritura concurrente posterior también se detecta
+    private void checkVersion(User user, Set<Long> expectedVersions) {
+        if (expectedVersions != null && !expectedVersions.contains(user.getVersion())) {
+            throw new UserVersionMismatchException(user.getId(), user.getVersion());
+        }
+    }
+
+    /**
+     * Ejecuta una escritura de usuario en su propia transacción, sin locks de base de datos: el conflicto con
+     * otra escritura concurrente lo detecta la columna version al hacer commit. Con If-Match el conflicto se
+     * informa como 412; sin él se vuelve a leer el usuario y se reaplican los cambios, hasta
+     * app.users.updates.max-attempts intentos.
+     */
+    private User writeWithRetry(UUID id, Set<Long> expectedVersions, Supplier<User> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> write.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (expectedVersions != null) {
+                    throw new UserVersionMismatchException(id, userRepository.findVersionById(id).orElse(null));
+                }
+                if (attempt >= userUpdateProperties.getMaxAttempts()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
     @Override
     @Transactional
     public void deleteUser(UUID id) {
+        userRepository.findById(id).ifPresent(user -> userDetailsCache.invalidate(user.getCorreo()));
+        refreshTokenService.revokeAll(id);
         userRepository.deleteById(id);
+        // Sin la fila, ningún token autocontenido del usuario vuelve a aceptarse
+        tokenRevocationRegistry.invalidate(id);
     }
 
-    @Override
-    @Transactional(readOnly = true)
-    public boolean existsById(UUID id) {
-        return userRepository.existsById(id);
-    }
+    /**
+     * Aplica los teléfonos recibidos como una diferencia sobre los actuales, ya cargados con el usuario:
+     * los que traen ID se actualizan, los que no se insertan y, si {@code removeMissing}, los actuales que no
+     * vienen se eliminan (orphanRemoval). Hibernate escribe los cambios en lotes al hacer flush.
+     * Con PATCH solo se copian los campos no nulos de cada teléfono.
+     */
+    private void reconcilePhones(User user, List<Phone> incoming, boolean removeMissing) {
+        if (user.getTelefonos() == null) {
+            user.setTelefonos(new ArrayList<>());
+        }
+        Map<Long, Phone> current = new HashMap<>();
+        for (Phone phone : user.getTelefonos()) {
+            current.put(phone.getId(), phone);
+        }
 
-    @Override
-    public ValidationErrorResponse validateUserData(UserCreateUpdateDto userDto) {
-        ValidationErrorResponse validationErrors = new ValidationErrorResponse();
+        // IDs ajenos o inexistentes se rechazan todos juntos, antes de modificar nada
+        List<Long> foreignIds = incoming.stream()
+            .map(Phone::getId)
+            .filter(phoneId -> phoneId != null && !current.containsKey(phoneId))
+            .distinct()
+            .collect(Collectors.toList());
+        if (!foreignIds.isEmpty()) {
+            throw new IllegalArgumentException("Los teléfonos " + foreignIds + " no pertenecen al usuario");
+        }
 
-        if (userDto.getCorreo() != null && !isValidEmail(userDto.getCorreo())) {
-            validationErrors.addError(ValidationPatterns.EMAIL_ERROR_MESSAGE);
+        Set<Long> kept = new HashSet<>();
+        List<Phone> added = new ArrayList<>();
+        for (Phone phoneDetails : incoming) {
+            if (phoneDetails.getId() == null) {
+                Phone phone = new Phone();
+                copyPhoneFields(phoneDetails, phone, false);
+                phone.setUser(user);
+                added.add(phone);
+            } else {
+                copyPhoneFields(phoneDetails, current.get(phoneDetails.getId()), !removeMissing);
+                kept.add(phoneDetails.getId());
+            }
         }
 
-        if (userDto.getContrasena() != null && !isValidPassword(userDto.getContrasena())) {
-            validationErrors.addError(ValidationPatterns.PASSWORD_ERROR_MESSAGE);
+        if (removeMissing) {
+            user.getTelefonos().removeIf(phone -> !kept.contains(phone.getId()));
         }
+        user.getTelefonos().addAll(added);
+    }
 
-        return validationErrors;
+    private void copyPhoneFields(Phone source, Phone target, boolean onlyNonNull) {
+        if (!onlyNonNull || source.getNumero() != null) {
+            target.setNumero(source.getNumero());
+        }
+        if (!onlyNonNull || source.getCodigoCiudad() != null) {
+            target.setCodigoCiudad(source.getCodigoCiudad());
+        }
+        if (!onlyNonNull || source.getCodigoPais() != null) {
+            target.setCodigoPais(source.getCodigoPais());
+        }
     }
 
-    private boolean isValidEmail(String email) {
-        return Pattern.matches(ValidationPatterns.EMAIL_PATTERN, email);
+    // Desactivar al usuario o cambiar su contraseña invalida los tokens autocontenidos y los refresh tokens ya emitidos
+    private void revokeTokensIfNeeded(User user, User userDetails) {
+        boolean deactivated = Boolean.FALSE.equals(userDetails.getEstaActivo())
+                && !Boolean.FALSE.equals(user.getEstaActivo());
+        if (deactivated || userDetails.getContrasena() != null) {
+            user.setTokenVersion(user.getTokenVersion() + 1);
+            tokenRevocationRegistry.invalidate(user.getId());
+            refreshTokenService.revokeAll(user.getId());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean existsById(UUID id) {
+        return userRepository.existsById(id);
     }
 
-    private boolean isValidPassword(String password) {
-        return Pattern.matches(ValidationPatterns.PASSWORD_PATTERN, password);
+    @Override
+    public ValidationErrorResponse validateUserData(UserCreateUpdateDto userDto) {
+        ValidationErrorResponse validationErrors = new ValidationErrorResponse();
+        userInputValidator.validateEmail(userDto.getCorreo(), false, validationErrors);
+        userInputValidator.validatePassword(userDto.getContrasena(), false, validationErrors);
+        return validationErrors;
     }
 
     @Override
     public UserDto convertToDto(User user) {
-        UserDto dto = new UserDto();
-        dto.setId(user.getId());
-        dto.setNombre(user.getNombre());
-        dto.setCorreo(user.getCorreo());
-        dto.setEstaActivo(user.getEstaActivo());
-        dto.setCreado(user.getCreado());
-        dto.setModificado(user.getModificado());
-        dto.setUltimoLogin(user.getUltimoLogin());
-        dto.setToken(user.getToken());
-        
-        if (user.getTelefonos() != null) {
-            List<PhoneDto> phoneDtos = user.getTelefonos().stream()
-                .map(phone -> {
-                    PhoneDto phoneDto = new PhoneDto();
-                    phoneDto.setId(phone.getId());
-                    phoneDto.setNumero(phone.getNumero());
-                    phoneDto.setCodigoCiudad(phone.getCodigoCiudad());
-                    phoneDto.setCodigoPais(phone.getCodigoPais());
-                    return phoneDto;
-                })
-                .collect(Collectors.toList());
-            dto.setTelefonos(phoneDtos);
-        }
-        
-        return dto;
+        return UserDtoMapper.toDto(user);
     }
 
     @Override
@@ -283,21 +511,148 @@ public class UserServiceImpl implements UserService {
         user.setUltimoLogin(now);
         user.setCreado(now);
 
+        // Se guarda primero para que el token pueda incluir el ID generado
+        User createdUser = createUser(user);
+
         // Generar token
         Authentication authentication = new UsernamePasswordAuthenticationToken(
-            user.getCorreo(),
-            user.getContrasena()
+            createdUser.getCorreo(),
+            createdUser.getContrasena(),
+            CustomUserDetailsService.DEFAULT_AUTHORITIES
         );
-        String jwt = tokenProvider.generarToken(authentication);
-        user.setToken(jwt);
+        String jwt = tokenProvider.generarToken(authentication, createdUser.getId());
+        createdUser.setToken(jwt);
 
-        User createdUser = createUser(user);
         return convertToDto(createdUser);
     }
 
     @Override
-    @Transactional
-    public UserDto updateUserWithValidation(UUID id, UserCreateUpdateDto userDto) {
+    public UserBatchResultDto importUsers(List<UserCreateUpdateDto> userDtos) {
+        if (userDtos == null || userDtos.isEmpty()) {
+            throw new IllegalArgumentException("La lista de usuarios a importar está vacía");
+        }
+        if (userDtos.size() > userBatchProperties.getMaxSize()) {
+            throw new IllegalArgumentException("Se pueden importar como máximo "
+                + userBatchProperties.getMaxSize() + " usuarios por solicitud");
+        }
+
+        UserBatchRowDto[] results = new UserBatchRowDto[userDtos.size()];
+        // Filas válidas por correo normalizado; un correo repetido dentro del lote se acepta solo la primera vez
+        Map<String, Integer> accepted = new LinkedHashMap<>();
+        for (int i = 0; i < userDtos.size(); i++) {
+            UserCreateUpdateDto dto = userDtos.get(i);
+            String error = validateImportRow(dto);
+            if (error == null && accepted.containsKey(EmailNormalizer.normalize(dto.getCorreo()))) {
+                error = "El correo " + dto.getCorreo() + " está repetido en la solicitud";
+            }
+            if (error != null) {
+                results[i] = UserBatchRowDto.rechazado(i, dto == null ? null : dto.getCorreo(), error);
+            } else {
+                accepted.put(EmailNormalizer.normalize(dto.getCorreo()), i);
+            }
+        }
+
+        for (String correoNormalizado : findRegisteredCorreos(accepted.keySet())) {
+            int i = accepted.remove(correoNormalizado);
+            String correo = userDtos.get(i).getCorreo();
+            results[i] = UserBatchRowDto.rechazado(i, correo, "El correo " + correo + " ya está registrado");
+        }
+
+        // Los hashes se calculan fuera de la transacción para no retener la conexión mientras tanto
+        List<Integer> rows = new ArrayList<>(accepted.values());
+        List<String> hashes = encodeAll(rows.stream()
+            .map(i -> userDtos.get(i).getContrasena())
+            .collect(Collectors.toList()));
+
+        List<User> users = new ArrayList<>(rows.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (int j = 0; j < rows.size(); j++) {
+            users.add(newImportedUser(userDtos.get(rows.get(j)), hashes.get(j), now));
+        }
+        transactionTemplate.executeWithoutResult(status -> persistInBatches(users));
+
+        for (int j = 0; j < rows.size(); j++) {
+            int i = rows.get(j);
+            results[i] = UserBatchRowDto.creado(i, users.get(j).getCorreo(), users.get(j).getId());
+        }
+        return new UserBatchResultDto(Arrays.asList(results));
+    }
+
+    private String validateImportRow(UserCreateUpdateDto dto) {
+        if (dto == null) {
+            return "El usuario está vacío";
+        }
+        if (dto.getCorreo() == null || dto.getCorreo().trim().isEmpty()) {
+            return ValidationPatterns.EMAIL_ERROR_MESSAGE;
+        }
+        if (dto.getContrasena() == null || dto.getContrasena().trim().isEmpty()) {
+            return ValidationPatterns.PASSWORD_ERROR_MESSAGE;
+        }
+        ValidationErrorResponse validationErrors = validateUserData(dto);
+        return validationErrors.getErrors().isEmpty() ? null : validationErrors.getErrors().get(0);
+    }
+
+    // Solo se consultan los correos que el filtro no descarta; la consulta IN se divide en bloques
+    // para no superar el límite de parámetros de la base
+    private List<String> findRegisteredCorreos(Collection<String> correosNormalizados) {
+        List<String> candidates = correosNormalizados.stream()
+            .filter(registeredEmailFilter::mightBeRegistered)
+            .collect(Collectors.toList());
+        List<String> existing = new ArrayList<>();
+        for (int from = 0; from < candidates.size(); from += EMAIL_LOOKUP_CHUNK) {
+            List<String> chunk = candidates.subList(from, Math.min(from + EMAIL_LOOKUP_CHUNK, candidates.size()));
+            existing.addAll(userRepository.findRegisteredCorreosNormalizados(chunk));
+        }
+        return existing;
+    }
+
+    private List<String> encodeAll(List<String> rawPasswords) {
+        if (passwordEncoder instanceof BoundedPasswordEncoder) {
+            return ((BoundedPasswordEncoder) passwordEncoder).encodeAll(rawPasswords);
+        }
+        return rawPasswords.stream().map(passwordEncoder::encode).collect(Collectors.toList());
+    }
+
+    private User newImportedUser(UserCreateUpdateDto dto, String hash, LocalDateTime now) {
+        User user = new User();
+        user.setNombre(dto.getNombre());
+        user.setCorreo(dto.getCorreo());
+        user.setContrasena(hash);
+        user.setEstaActivo(dto.getEstaActivo() == null || dto.getEstaActivo());
+        user.setCreado(now);
+
+        // Los IDs recibidos se ignoran: usuarios y teléfonos siempre son nuevos
+        List<Phone> phones = new ArrayList<>();
+        if (dto.getTelefonos() != null) {
+            for (PhoneDto phoneDto : dto.getTelefonos()) {
+                Phone phone = new Phone();
+                phone.setNumero(phoneDto.getNumero());
+                phone.setCodigoCiudad(phoneDto.getCodigoCiudad());
+                phone.setCodigoPais(phoneDto.getCodigoPais());
+                phone.setUser(user);
+                phones.add(phone);
+            }
+        }
+        user.setTelefonos(phones);
+        return user;
+    }
+
+    // persist + flush/clear por bloques: Hibernate agrupa los INSERT en lotes JDBC de hibernate.jdbc.batch_size
+    private void persistInBatches(List<User> users) {
+        int flushSize = userBatchProperties.getFlushSize();
+        for (int i = 0; i < users.size(); i++) {
+            entityManager.persist(users.get(i));
+            if ((i + 1) % flushSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public UserDto updateUserWithValidation(UUID id, UserCreateUpdateDto userDto, Set<Long> expectedVersions) {
         if (!existsById(id)) {
             throw new IllegalStateException("Usuario con ID " + id + " no encontrado");
         }
@@ -315,9 +670,10 @@ public class UserServiceImpl implements UserService {
             throw new IllegalStateException("El correo " + userDto.getCorreo() + " ya está registrado para otro usuario");
         }
 
+        // El hash se calcula una sola vez, fuera de la transacción y de los reintentos
         User user = convertToEntity(userDto);
         user.setModificado(LocalDateTime.now());
-        User updatedUser = updateUser(id, user);
+        User updatedUser = writeWithRetry(id, expectedVersions, () -> replaceUser(id, user, expectedVersions));
         
         if (updatedUser == null) {
             throw new IllegalStateException("Error al actualizar el usuario");
@@ -327,14 +683,13 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    @Transactional
-    public UserDto partialUpdateUserWithValidation(UUID id, UserCreateUpdateDto userDto) {
+    public UserDto partialUpdateUserWithValidation(UUID id, UserCreateUpdateDto userDto, Set<Long> expectedVersions) {
         if (!existsById(id)) {
             throw new IllegalStateException("Usuario con ID " + id + " no encontrado");
         }
 
         if (userDto.getCorreo() != null) {
-            if (!isValidEmail(userDto.getCorreo())) {
+            if (!userInputValidator.isValidEmail(userDto.getCorreo())) {
                 throw new IllegalArgumentException(ValidationPatterns.EMAIL_ERROR_MESSAGE);
             }
             if (!isEmailAvailable(userDto.getCorreo(), id)) {
@@ -342,13 +697,13 @@ public class UserServiceImpl implements UserService {
             }
         }
 
-        if (userDto.getContrasena() != null && !isValidPassword(userDto.getContrasena())) {
+        if (userDto.getContrasena() != null && !userInputValidator.isValidPassword(userDto.getContrasena())) {
             throw new IllegalArgumentException(ValidationPatterns.PASSWORD_ERROR_MESSAGE);
         }
 
         User user = convertToEntity(userDto);
         user.setModificado(LocalDateTime.now());
-        User updatedUser = partialUpdateUser(id, user);
+        User updatedUser = writeWithRetry(id, expectedVersions, () -> mergeUser(id, user, expectedVersions));
         
         if (updatedUser == null) {
             throw new IllegalStateException("Error al actualizar el usuario");
@@ -359,8 +714,14 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public boolean isEmailAvailable(String email, UUID excludeUserId) {
-        Optional<User> existingUser = getUserByEmail(email);
-        return !existingUser.isPresent() || 
-               (excludeUserId != null && existingUser.get().getId().equals(excludeUserId));
+        String correoNormalizado = EmailNormalizer.normalize(email);
+        // La mayoría de los correos nuevos se descartan en memoria, sin consultar la base
+        if (!registeredEmailFilter.mightBeRegistered(correoNormalizado)) {
+            return true;
+        }
+        if (excludeUserId == null) {
+            return !userRepository.existsByCorreoNormalizado(correoNormalizado);
+        }
+        return !userRepository.existsByCorreoNormalizadoAndIdNot(correoNormalizado, excludeUserId);
     }
 }
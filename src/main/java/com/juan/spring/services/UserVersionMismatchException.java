@@ -0,0 +1,22 @@
+package com.juan.spring.services;
+
+import java.util.UUID;
+
+/**
+ * La versión enviada en If-Match ya no es la actual del usuario: otra escritura lo modificó después de que
+ * el cliente lo leyera.
+ */
+public class UserVersionMismatchException extends RuntimeException {
+
+    private final Long currentVersion;
+
+    public UserVersionMismatchException(UUID id, Long currentVersion) {
+        super("El usuario con ID " + id + " fue modificado por otra operación; vuelva a leerlo y reintente");
+        this.currentVersion = currentVersion;
+    }
+
+    // Versión vigente, o null si el usuario se eliminó entretanto
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
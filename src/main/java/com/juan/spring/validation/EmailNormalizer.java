@@ -0,0 +1,14 @@
+package com.juan.spring.validation;
+
+import java.util.Locale;
+
+public final class EmailNormalizer {
+
+    private EmailNormalizer() {
+    }
+
+    // Forma canónica usada para la unicidad y las búsquedas: sin espacios alrededor y en minúsculas
+    public static String normalize(String correo) {
+        return correo == null ? null : correo.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,93 @@
+package com.juan.spring.validation;
+
+import com.juan.spring.dto.ValidationErrorResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Pattern;
+
+/**
+ * Valida correo y contraseña según {@link ValidationPatterns}. El patrón de correo se compila una sola vez y
+ * la política de contraseñas se comprueba en una pasada sobre la cadena, sin expresiones regulares; ambas
+ * entradas se rechazan por longitud antes de recorrerlas.
+ */
+@Component
+public class UserInputValidator {
+
+    private static final Pattern EMAIL = Pattern.compile(ValidationPatterns.EMAIL_PATTERN);
+
+    public boolean isValidEmail(String correo) {
+        return correo != null
+            && correo.length() <= ValidationPatterns.EMAIL_MAX_LENGTH
+            && EMAIL.matcher(correo).matches();
+    }
+
+    // Equivalente a PASSWORD_PATTERN con tope de longitud: tiempo lineal y sin asignaciones
+    public boolean isValidPassword(String contrasena) {
+        if (contrasena == null) {
+            return false;
+        }
+        int length = contrasena.length();
+        if (length < ValidationPatterns.PASSWORD_MIN_LENGTH || length > ValidationPatterns.PASSWORD_MAX_LENGTH) {
+            return false;
+        }
+        boolean digit = false;
+        boolean lower = false;
+        boolean upper = false;
+        boolean special = false;
+        for (int i = 0; i < length; i++) {
+            char c = contrasena.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digit = true;
+            } else if (c >= 'a' && c <= 'z') {
+                lower = true;
+            } else if (c >= 'A' && c <= 'Z') {
+                upper = true;
+            } else if (ValidationPatterns.PASSWORD_SPECIAL_CHARACTERS.indexOf(c) >= 0) {
+                special = true;
+            } else if (isWhitespaceOrLineTerminator(c)) {
+                return false;
+            }
+        }
+        return digit && lower && upper && special;
+    }
+
+    // Agrega el error de correo si falta (cuando es requerido) o si no tiene un formato válido
+    public void validateEmail(String correo, boolean required, ValidationErrorResponse errors) {
+        if (correo == null || (required && correo.trim().isEmpty())) {
+            if (required) {
+                errors.addError(ValidationPatterns.EMAIL_ERROR_MESSAGE);
+            }
+        } else if (!isValidEmail(correo)) {
+            errors.addError(ValidationPatterns.EMAIL_ERROR_MESSAGE);
+        }
+    }
+
+    // Agrega el error de contraseña si falta (cuando es requerida) o si no cumple la política
+    public void validatePassword(String contrasena, boolean required, ValidationErrorResponse errors) {
+        if (contrasena == null || (required && contrasena.trim().isEmpty())) {
+            if (required) {
+                errors.addError(ValidationPatterns.PASSWORD_ERROR_MESSAGE);
+            }
+        } else if (!isValidPassword(contrasena)) {
+            errors.addError(ValidationPatterns.PASSWORD_ERROR_MESSAGE);
+        }
+    }
+
+    // \S excluye [ \t\n\x0B\f\r] y "." excluye los terminadores de línea
+    private static boolean isWhitespaceOrLineTerminator(char c) {
+        switch (c) {
+            case ' ':
+            case '\t':
+            case '\n':
+            case '\u000B':
+            case '\f':
+            case '\r':
+            case '\u0085':
+            case '\u2028':
+            case '\u2029':
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -13,6 +13,14 @@ public class ValidationPatterns {
     // - Al menos un carácter especial
     public static final String PASSWORD_PATTERN = 
         "^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[@#$%^&+=!])(?=\\S+$).{8,}$";
+
+    // Caracteres especiales aceptados por PASSWORD_PATTERN
+    public static final String PASSWORD_SPECIAL_CHARACTERS = "@#$%^&+=!";
+
+    // Límites de longitud; se comprueban antes de evaluar los patrones
+    public static final int EMAIL_MAX_LENGTH = 254;
+    public static final int PASSWORD_MIN_LENGTH = 8;
+    public static final int PASSWORD_MAX_LENGTH = 128;
     
     // Mensajes de error
     public static final String EMAIL_ERROR_MESSAGE = 
@@ -0,0 +1,48 @@
+-- Esquema que generaba Hibernate con ddl-auto=update, ahora versionado. Una base creada así se adopta con
+-- spring.flyway.baseline-on-migrate=true (versión base 1) y solo recibe las migraciones siguientes.
+
+create table usuarios (
+    id                 varchar(36)  not null,
+    nombre             varchar(255),
+    correo             varchar(255),
+    correo_normalizado varchar(255),
+    contrasena         varchar(255),
+    creado             timestamp    not null,
+    modificado         timestamp,
+    ultimo_login       timestamp,
+    token              varchar(255),
+    esta_activo        boolean,
+    version            bigint       default 0 not null,
+    constraint pk_usuarios primary key (id)
+);
+
+create unique index ux_usuarios_correo on usuarios (correo);
+create unique index ux_usuarios_correo_normalizado on usuarios (correo_normalizado);
+
+create sequence telefonos_seq start with 1 increment by 50;
+
+create table telefonos (
+    id            bigint       not null,
+    user_id       varchar(36),
+    numero        varchar(255),
+    codigo_ciudad varchar(255),
+    codigo_pais   varchar(255),
+    constraint pk_telefonos primary key (id),
+    constraint fk_telefonos_usuario foreign key (user_id) references usuarios (id)
+);
+
+create sequence refresh_tokens_seq start with 1 increment by 50;
+
+create table refresh_tokens (
+    id         bigint      not null,
+    token_hash varchar(43) not null,
+    usuario_id varchar(36) not null,
+    familia    varchar(36) not null,
+    expira     timestamp   not null,
+    usado      boolean     not null,
+    constraint pk_refresh_tokens primary key (id)
+);
+
+create unique index ux_refresh_tokens_token_hash on refresh_tokens (token_hash);
+create index ix_refresh_tokens_usuario_id on refresh_tokens (usuario_id);
+create index ix_refresh_tokens_familia on refresh_tokens (familia);
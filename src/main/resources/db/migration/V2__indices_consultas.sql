@@ -0,0 +1,20 @@
+-- Índices para las consultas de los repositorios; RepositoryIndexUsageTest verifica con EXPLAIN que se usen.
+
+-- PhoneRepository.findByUserId y deleteByUserId, y la carga de User.telefonos. No todas las bases indexan las
+-- claves foráneas; H2 sí, con un índice propio, así que la clave se vuelve a crear para que use este
+alter table telefonos drop constraint fk_telefonos_usuario;
+create index ix_telefonos_user_id on telefonos (user_id);
+alter table telefonos add constraint fk_telefonos_usuario foreign key (user_id) references usuarios (id);
+
+-- findByCodigoPais usa el prefijo del índice; (codigo_pais, codigo_ciudad) sirve además para filtrar por ciudad
+-- dentro de un país
+create index ix_telefonos_codigo_pais_ciudad on telefonos (codigo_pais, codigo_ciudad);
+create index ix_telefonos_codigo_ciudad on telefonos (codigo_ciudad);
+create index ix_telefonos_numero on telefonos (numero);
+
+-- Paginación por cursor (creado, id) de UserRepository: el índice da el orden y la posición de inicio,
+-- sin ordenar la tabla
+create index ix_usuarios_creado_id on usuarios (creado, id);
+
+-- Borrado periódico de refresh tokens vencidos
+create index ix_refresh_tokens_expira on refresh_tokens (expira);
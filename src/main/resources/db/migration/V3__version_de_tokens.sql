@@ -0,0 +1,3 @@
+-- Versión vigente de los tokens autocontenidos de cada usuario. Revocarlos la incrementa en la base, así la
+-- revocación vale para todas las instancias y sobrevive a un reinicio
+alter table usuarios add column token_version integer default 0 not null;
@@ -0,0 +1,192 @@
+package com.juan.spring.reactive;
+
+import com.juan.spring.config.JwtProperties;
+import com.juan.spring.config.TokenVersionCacheProperties;
+import com.juan.spring.config.VerifiedTokenCacheProperties;
+import com.juan.spring.dto.UserDto;
+import com.juan.spring.security.CustomUserDetailsService;
+import com.juan.spring.security.JwtTokenProvider;
+import com.juan.spring.security.TokenRevocationRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * API reactiva de lectura sobre su propia base en memoria, con el esquema de las migraciones
+ * para la API servlet.
+ */
+@SpringBootTest(classes = ReactiveReadApplication.class, properties = {
+    "spring.main.web-application-type=reactive",
+    "spring.r2dbc.url=r2dbc:h2:mem:///reactive-users?options=DB_CLOSE_DELAY=-1",
+    // Clave compartida con la API servlet, simulada en selfContainedToken
+    "app.jwt-secret=IfrFBcpYRTZx+au9+zKCmI4Jno50NClcG8VHasDMLDsS72Zpno9q7FvWMqAuJy2+Z90TrprhwDu36frlkRbcNA==",
+    "app.jwt-self-contained=true"
+})
+@AutoConfigureWebTestClient
+@ActiveProfiles(ReactiveReadApplication.PROFILE)
+class ReactiveUserApiTest {
+
+    private static final UUID ANA = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID BRUNO = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    private static final LocalDateTime CREADO = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private JwtProperties jwtProperties;
+
+    @BeforeEach
+    void setUp() {
+        execute("create table if not exists usuarios (id varchar(255) not null primary key, nombre varchar(255), "
+            + "correo varchar(255) unique, correo_normalizado varchar(255), contrasena varchar(255), "
+            + "creado timestamp not null, modificado timestamp, ultimo_login timestamp, token varchar(255), "
+            + "esta_activo boolean, version bigint default 0 not null, token_version integer default 0 not null)");
+        execute("create table if not exists telefonos (id bigint not null primary key, numero varchar(255), "
+            + "codigo_ciudad varchar(255), codigo_pais varchar(255), user_id varchar(255))");
+        execute("delete from telefonos");
+        execute("delete from usuarios");
+
+        insertUser(BRUNO, "Bruno", "bruno@reactive.test", CREADO.plusMinutes(1));
+        insertUser(ANA, "Ana", "ana@reactive.test", CREADO);
+        insertPhone(11L, ANA, "1111111");
+        insertPhone(12L, ANA, "2222222");
+        insertPhone(21L, BRUNO, "3333333");
+    }
+
+    @Test
+    void getUsers_WithoutToken_ShouldBeForbidden() {
+        webTestClient.get().uri("/users")
+            .exchange()
+            .expectStatus().isForbidden();
+    }
+
+    @Test
+    void getUsers_WithTokenOfUnknownUser_ShouldBeForbidden() {
+        webTestClient.get().uri("/users")
+            .headers(headers -> headers.setBearerAuth(token("nadie@reactive.test")))
+            .exchange()
+            .expectStatus().isForbidden();
+    }
+
+    @Test
+    void getUsers_AsNdjson_ShouldStreamUsersWithTheirPhonesInOrder() {
+        List<UserDto> users = webTestClient.get().uri("/users")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .headers(headers -> headers.setBearerAuth(token("ana@reactive.test")))
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(UserDto.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertEquals(2, users.size());
+        assertEquals(ANA, users.get(0).getId());
+        assertEquals(2, users.get(0).getTelefonos().size());
+        assertEquals("1111111", users.get(0).getTelefonos().get(0).getNumero());
+        assertEquals(BRUNO, users.get(1).getId());
+        assertEquals(1, users.get(1).getTelefonos().size());
+    }
+
+    @Test
+    void getUserById_WithExistingUser_ShouldReturnDto() {
+        webTestClient.get().uri("/users/{id}", ANA)
+            .headers(headers -> headers.setBearerAuth(token("bruno@reactive.test")))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.correo").isEqualTo("ana@reactive.test")
+            .jsonPath("$.estaActivo").isEqualTo(true)
+            .jsonPath("$.telefonos.length()").isEqualTo(2);
+    }
+
+    @Test
+    void getUserById_WithUnknownId_ShouldReturnNotFound() {
+        UUID id = UUID.randomUUID();
+
+        webTestClient.get().uri("/users/{id}", id)
+            .headers(headers -> headers.setBearerAuth(token("ana@reactive.test")))
+            .exchange()
+            .expectStatus().isNotFound()
+            .expectBody()
+            .jsonPath("$.message").value(message -> assertTrue(message.toString().contains(id.toString())));
+    }
+
+    @Test
+    void getUserById_WithSelfContainedToken_ShouldCheckTokenVersionInDatabase() {
+        webTestClient.get().uri("/users/{id}", BRUNO)
+            .headers(headers -> headers.setBearerAuth(selfContainedToken(ANA, "ana@reactive.test")))
+            .exchange()
+            .expectStatus().isOk();
+
+        // Revocado desde la API servlet: token_version ya es mayor que la versión del token
+        execute("update usuarios set token_version = 1 where id = '" + BRUNO + "'");
+        webTestClient.get().uri("/users/{id}", ANA)
+            .headers(headers -> headers.setBearerAuth(selfContainedToken(BRUNO, "bruno@reactive.test")))
+            .exchange()
+            .expectStatus().isForbidden();
+    }
+
+    private String token(String correo) {
+        return tokenProvider.generarToken(new UsernamePasswordAuthenticationToken(correo, null));
+    }
+
+    // Emitido como lo haría la API servlet, con la versión de token 0
+    private String selfContainedToken(UUID id, String correo) {
+        JwtTokenProvider servletProvider = new JwtTokenProvider(jwtProperties, new VerifiedTokenCacheProperties(),
+            new TokenRevocationRegistry(userId -> Optional.of(0), new TokenVersionCacheProperties(), new SimpleMeterRegistry()),
+            new SimpleMeterRegistry());
+        servletProvider.init();
+        return servletProvider.generarToken(new UsernamePasswordAuthenticationToken(
+            correo, null, CustomUserDetailsService.DEFAULT_AUTHORITIES), id);
+    }
+
+    private void insertUser(UUID id, String nombre, String correo, LocalDateTime creado) {
+        databaseClient.sql("insert into usuarios (id, nombre, correo, correo_normalizado, contrasena, creado, esta_activo) "
+                + "values (:id, :nombre, :correo, :correo, 'x', :creado, true)")
+            .bind("id", id.toString())
+            .bind("nombre", nombre)
+            .bind("correo", correo)
+            .bind("creado", creado)
+            .then()
+            .block();
+    }
+
+    private void insertPhone(long id, UUID userId, String numero) {
+        databaseClient.sql("insert into telefonos (id, numero, codigo_ciudad, codigo_pais, user_id) "
+                + "values (:id, :numero, '1', '57', :userId)")
+            .bind("id", id)
+            .bind("numero", numero)
+            .bind("userId", userId.toString())
+            .then()
+            .block();
+    }
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+}
@@ -0,0 +1,101 @@
+package com.juan.spring.reactive;
+
+import com.juan.spring.security.AuthenticatedUser;
+import com.juan.spring.security.CustomUserDetailsService;
+import com.juan.spring.security.JwtTokenProvider;
+import com.juan.spring.security.JwtVerificationResult;
+import com.juan.spring.security.TokenRevocationRegistry;
+import io.jsonwebtoken.Claims;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Equivalente reactivo de {@link com.juan.spring.security.JwtAuthenticationFilter}: misma verificación
+ * del token y misma resolución del usuario, pero la búsqueda por correo y la de la versión de tokens
+ * autocontenidos son no bloqueantes (R2DBC).
+ * Si el token no es válido la petición continúa sin autenticación y la cadena de seguridad responde 403.
+ */
+public class ReactiveJwtAuthenticationFilter implements WebFilter {
+
+    private static final Log logger = LogFactory.getLog(ReactiveJwtAuthenticationFilter.class);
+
+    private final JwtTokenProvider tokenProvider;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final ReactiveUserRepository userRepository;
+
+    public ReactiveJwtAuthenticationFilter(JwtTokenProvider tokenProvider, TokenRevocationRegistry revocationRegistry,
+                                           ReactiveUserRepository userRepository) {
+        this.tokenProvider = tokenProvider;
+        this.revocationRegistry = revocationRegistry;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        JwtVerificationResult verification = tokenProvider.verificarToken(obtenerJwtDeRequest(exchange.getRequest()));
+        if (!verification.isValid()) {
+            return chain.filter(exchange);
+        }
+        return resolverUsuario(verification.getClaims())
+            .map(user -> Optional.<Authentication>of(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities())))
+            .onErrorResume(ex -> {
+                logger.error("No se pudo establecer la autenticación del usuario en el contexto de seguridad", ex);
+                return Mono.empty();
+            })
+            .defaultIfEmpty(Optional.empty())
+            .flatMap(authentication -> authentication
+                .map(value -> chain.filter(exchange)
+                    .contextWrite(ReactiveSecurityContextHolder.withAuthentication(value)))
+                .orElseGet(() -> chain.filter(exchange)));
+    }
+
+    // Con tokens autocontenidos el usuario sale de los claims; si no, se comprueba que siga existiendo
+    private Mono<AuthenticatedUser> resolverUsuario(Claims claims) {
+        if (tokenProvider.esAutocontenido(claims)) {
+            Integer tokenVersion = tokenProvider.obtenerVersion(claims);
+            if (tokenVersion == null) {
+                return Mono.empty();
+            }
+            AuthenticatedUser user = tokenProvider.obtenerUsuarioDeClaims(claims);
+            return versionVigente(user.getId())
+                .filter(version -> !TokenRevocationRegistry.isRevoked(tokenVersion, version))
+                .map(version -> user);
+        }
+        String correo = claims.getSubject();
+        return userRepository.findIdByCorreo(correo)
+            .map(id -> new AuthenticatedUser(id, correo, "", CustomUserDetailsService.DEFAULT_AUTHORITIES));
+    }
+
+    // Desde la caché del registro o, sin bloquear, desde la base; un usuario borrado revoca todos sus tokens
+    private Mono<Integer> versionVigente(UUID userId) {
+        Integer cached = revocationRegistry.cachedVersion(userId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return userRepository.findTokenVersion(userId)
+            .defaultIfEmpty(TokenRevocationRegistry.DELETED)
+            .doOnNext(version -> revocationRegistry.remember(userId, version));
+    }
+
+    private String obtenerJwtDeRequest(ServerHttpRequest request) {
+        String bearerToken = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
+        return null;
+    }
+}
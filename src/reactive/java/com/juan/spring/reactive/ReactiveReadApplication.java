@@ -0,0 +1,62 @@
+package com.juan.spring.reactive;
+
+import com.juan.spring.config.JwtProperties;
+import com.juan.spring.config.PaginationProperties;
+import com.juan.spring.config.TokenVersionCacheProperties;
+import com.juan.spring.config.VerifiedTokenCacheProperties;
+import com.juan.spring.security.JwtTokenProvider;
+import com.juan.spring.security.TokenRevocationRegistry;
+import com.juan.spring.security.TokenVersionStore;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.reactive.ReactiveOAuth2ResourceServerAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * API reactiva de solo lectura de usuarios (WebFlux + R2DBC), desplegada como un proceso aparte
+ * con el perfil "reactive" para comparar memoria por conexión y latencia de cola contra la API servlet.
+ * Solo escanea este paquete; del resto de la aplicación reutiliza la verificación de JWT y el mapeo a DTO.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {
+    DataSourceAutoConfiguration.class,
+    DataSourceTransactionManagerAutoConfiguration.class,
+    HibernateJpaAutoConfiguration.class,
+    ReactiveUserDetailsServiceAutoConfiguration.class,
+    ReactiveOAuth2ResourceServerAutoConfiguration.class
+})
+@ComponentScan
+@EnableConfigurationProperties({JwtProperties.class, VerifiedTokenCacheProperties.class, PaginationProperties.class,
+    TokenVersionCacheProperties.class})
+@Import({JwtTokenProvider.class, TokenRevocationRegistry.class})
+@Profile(ReactiveReadApplication.PROFILE)
+public class ReactiveReadApplication {
+
+    public static final String PROFILE = "reactive";
+
+    // El filtro lee token_version con R2DBC sin bloquear y este proceso no emite tokens autocontenidos,
+    // así que el registro nunca consulta el almacén bloqueante
+    @Bean
+    public TokenVersionStore tokenVersionStore() {
+        return userId -> {
+            throw new UnsupportedOperationException("La API reactiva lee token_version con ReactiveUserRepository");
+        };
+    }
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveReadApplication.class)
+            .profiles(PROFILE)
+            .web(WebApplicationType.REACTIVE)
+            .run(args);
+    }
+}
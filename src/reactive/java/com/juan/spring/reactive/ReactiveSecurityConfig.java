@@ -0,0 +1,50 @@
+package com.juan.spring.reactive;
+
+import com.juan.spring.security.JwtTokenProvider;
+import com.juan.spring.security.TokenRevocationRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+@Configuration
+@EnableWebFluxSecurity
+@Profile(ReactiveReadApplication.PROFILE)
+public class ReactiveSecurityConfig {
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private TokenRevocationRegistry revocationRegistry;
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    // Mismas reglas que la API servlet para lo que expone este proceso: sin sesión y 403 sin token válido
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http
+                .csrf(csrf -> csrf.disable())
+                .httpBasic(httpBasic -> httpBasic.disable())
+                .formLogin(formLogin -> formLogin.disable())
+                .logout(logout -> logout.disable())
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+                .authorizeExchange(exchanges -> exchanges
+                        // Health y scrape de Prometheus; el resto requiere token
+                        .pathMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
+                        .anyExchange().authenticated())
+                .addFilterAt(new ReactiveJwtAuthenticationFilter(tokenProvider, revocationRegistry, userRepository),
+                        SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.juan.spring.reactive;
+
+import com.juan.spring.config.PaginationProperties;
+import com.juan.spring.dto.ErrorMessage;
+import com.juan.spring.dto.UserDto;
+import com.juan.spring.services.UserDtoMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/users")
+@Profile(ReactiveReadApplication.PROFILE)
+public class ReactiveUserController {
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @Autowired
+    private PaginationProperties paginationProperties;
+
+    /**
+     * Con Accept: application/x-ndjson cada usuario se escribe apenas se lee y la lectura avanza al ritmo
+     * del cliente. En application/json la lista se arma completa en memoria antes de escribirse, por eso
+     * tiene el mismo límite que el listado sin paginar de la API servlet (app.users.pagination.unpaged-max).
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<UserDto> getAllUsers(ServerHttpRequest request) {
+        Flux<UserDto> users = userRepository.findAll().map(UserDtoMapper::toDto);
+        if (request.getHeaders().getAccept().contains(MediaType.APPLICATION_NDJSON)) {
+            return users;
+        }
+        return users.take(paginationProperties.getUnpagedMax());
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<?>> getUserById(@PathVariable UUID id) {
+        return userRepository.findById(id)
+            .<ResponseEntity<?>>map(user -> ResponseEntity.ok(UserDtoMapper.toDto(user)))
+            .defaultIfEmpty(ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(new ErrorMessage("Usuario con ID " + id + " no encontrado")));
+    }
+}
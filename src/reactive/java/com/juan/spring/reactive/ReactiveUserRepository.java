@@ -0,0 +1,115 @@
+package com.juan.spring.reactive;
+
+import com.juan.spring.entities.Phone;
+import com.juan.spring.entities.User;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lecturas de usuarios sobre R2DBC. Usuarios y teléfonos se leen en una sola consulta con join,
+ * ordenada por usuario, y las filas consecutivas del mismo usuario se agrupan en un {@link User}.
+ * Solo se mantienen en memoria las filas del usuario en curso, así el listado respeta la demanda del cliente.
+ */
+@Repository
+@Profile(ReactiveReadApplication.PROFILE)
+public class ReactiveUserRepository {
+
+    private static final String SELECT_USUARIOS_CON_TELEFONOS =
+        "select u.id, u.nombre, u.correo, u.esta_activo, u.creado, u.modificado, u.ultimo_login, u.token, u.version, "
+            + "t.id as telefono_id, t.numero, t.codigo_ciudad, t.codigo_pais "
+            + "from usuarios u left join telefonos t on t.user_id = u.id ";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    // Mismo orden que el listado paginado de la API servlet: (creado, id)
+    public Flux<User> findAll() {
+        return databaseClient.sql(SELECT_USUARIOS_CON_TELEFONOS + "order by u.creado asc, u.id asc, t.id asc")
+            .map((row, metadata) -> toUserRow(row))
+            .all()
+            .bufferUntilChanged(userRow -> userRow.user.getId())
+            .map(ReactiveUserRepository::toUser);
+    }
+
+    public Mono<User> findById(UUID id) {
+        return databaseClient.sql(SELECT_USUARIOS_CON_TELEFONOS + "where u.id = :id order by t.id asc")
+            .bind("id", id.toString())
+            .map((row, metadata) -> toUserRow(row))
+            .all()
+            .collectList()
+            .filter(rows -> !rows.isEmpty())
+            .map(ReactiveUserRepository::toUser);
+    }
+
+    public Mono<UUID> findIdByCorreo(String correo) {
+        return databaseClient.sql("select id from usuarios where correo = :correo")
+            .bind("correo", correo)
+            .map((row, metadata) -> UUID.fromString(row.get("id", String.class)))
+            .one();
+    }
+
+    // Versión vigente de los tokens autocontenidos del usuario; vacío si no existe
+    public Mono<Integer> findTokenVersion(UUID id) {
+        return databaseClient.sql("select token_version from usuarios where id = :id")
+            .bind("id", id.toString())
+            .map((row, metadata) -> row.get("token_version", Integer.class))
+            .one();
+    }
+
+    private static UserRow toUserRow(Row row) {
+        User user = new User();
+        user.setId(UUID.fromString(row.get("id", String.class)));
+        user.setNombre(row.get("nombre", String.class));
+        user.setCorreo(row.get("correo", String.class));
+        user.setEstaActivo(row.get("esta_activo", Boolean.class));
+        user.setCreado(row.get("creado", LocalDateTime.class));
+        user.setModificado(row.get("modificado", LocalDateTime.class));
+        user.setUltimoLogin(row.get("ultimo_login", LocalDateTime.class));
+        user.setToken(row.get("token", String.class));
+        user.setVersion(row.get("version", Long.class));
+
+        Long telefonoId = row.get("telefono_id", Long.class);
+        Phone phone = null;
+        if (telefonoId != null) {
+            phone = new Phone();
+            phone.setId(telefonoId);
+            phone.setNumero(row.get("numero", String.class));
+            phone.setCodigoCiudad(row.get("codigo_ciudad", String.class));
+            phone.setCodigoPais(row.get("codigo_pais", String.class));
+        }
+        return new UserRow(user, phone);
+    }
+
+    private static User toUser(List<UserRow> rows) {
+        User user = rows.get(0).user;
+        List<Phone> telefonos = new ArrayList<>(rows.size());
+        for (UserRow row : rows) {
+            if (row.phone != null) {
+                row.phone.setUser(user);
+                telefonos.add(row.phone);
+            }
+        }
+        user.setTelefonos(telefonos);
+        return user;
+    }
+
+    private static final class UserRow {
+        private final User user;
+        private final Phone phone;
+
+        private UserRow(User user, Phone phone) {
+            this.user = user;
+            this.phone = phone;
+        }
+    }
+}
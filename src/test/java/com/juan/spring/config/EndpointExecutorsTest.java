@@ -0,0 +1,186 @@
+package com.juan.spring.config;
+
+import com.juan.spring.config.EndpointExecutors.Workload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndpointExecutorsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private EndpointExecutors endpointExecutors;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        EndpointExecutorProperties properties = new EndpointExecutorProperties();
+        properties.setWrites(new EndpointExecutorProperties.Pool(1, 1, Duration.ofSeconds(5)));
+        properties.getWrites().setRetryAfterSeconds(4);
+        meterRegistry = new SimpleMeterRegistry();
+        endpointExecutors = new EndpointExecutors(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        endpointExecutors.destroy();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void submit_WhenWritePoolIsSaturated_ShouldRejectWritesButStillServeReads() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        DeferredResult<ResponseEntity<?>> inFlight = endpointExecutors.submit(Workload.WRITES, () -> {
+            running.countDown();
+            awaitRelease();
+            return ResponseEntity.ok("escrito");
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        DeferredResult<ResponseEntity<?>> queued = endpointExecutors.submit(Workload.WRITES, () -> ResponseEntity.ok("en cola"));
+
+        DeferredResult<ResponseEntity<?>> rejected = endpointExecutors.submit(Workload.WRITES, () -> ResponseEntity.ok("no"));
+        ResponseEntity<?> rejection = (ResponseEntity<?>) rejected.getResult();
+        assertEquals(503, rejection.getStatusCodeValue());
+        assertEquals("4", rejection.getHeaders().getFirst("Retry-After"));
+        assertEquals(1.0, meterRegistry.get("endpoint.executor.rejected").tag("pool", "writes").counter().count());
+
+        ResponseEntity<?> read = await(endpointExecutors.submit(Workload.READS, () -> ResponseEntity.ok("leído")));
+        assertEquals("leído", read.getBody());
+
+        release.countDown();
+        assertEquals("escrito", await(inFlight).getBody());
+        assertEquals("en cola", await(queued).getBody());
+    }
+
+    @Test
+    void submit_ShouldRunWithTheCallerSecurityContextAndForwardExceptions() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken("ana@test.com", null));
+
+        ResponseEntity<?> response = await(endpointExecutors.submit(Workload.READS,
+            () -> ResponseEntity.ok(SecurityContextHolder.getContext().getAuthentication().getName())));
+        assertEquals("ana@test.com", response.getBody());
+
+        IllegalStateException failure = new IllegalStateException("falla");
+        DeferredResult<ResponseEntity<?>> failed = endpointExecutors.submit(Workload.AUTH, () -> {
+            throw failure;
+        });
+        assertSame(failure, awaitResult(failed));
+    }
+
+    @Test
+    void timeout_WhenWriteIsAlreadyRunning_ShouldAnswerGatewayTimeoutAndLetTheWriteFinish() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        AtomicBoolean committed = new AtomicBoolean();
+        DeferredResult<ResponseEntity<?>> write = endpointExecutors.submit(Workload.WRITES, () -> {
+            running.countDown();
+            awaitRelease();
+            committed.set(true);
+            return ResponseEntity.status(201).build();
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        ResponseEntity<?> response = expire(write);
+
+        assertEquals(504, response.getStatusCodeValue());
+        assertNull(response.getHeaders().getFirst("Retry-After"));
+        release.countDown();
+        awaitTrue(committed);
+        assertSame(response, write.getResult());
+        assertEquals(1.0, meterRegistry.get("endpoint.executor.timeouts").tags("pool", "writes", "stage", "running")
+            .counter().count());
+    }
+
+    @Test
+    void timeout_WhenWriteIsStillQueued_ShouldAnswerServiceUnavailableAndNeverRunIt() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        DeferredResult<ResponseEntity<?>> inFlight = endpointExecutors.submit(Workload.WRITES, () -> {
+            running.countDown();
+            awaitRelease();
+            return ResponseEntity.ok("escrito");
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        AtomicBoolean executed = new AtomicBoolean();
+        DeferredResult<ResponseEntity<?>> queued = endpointExecutors.submit(Workload.WRITES, () -> {
+            executed.set(true);
+            return ResponseEntity.ok("en cola");
+        });
+
+        ResponseEntity<?> response = expire(queued);
+
+        assertEquals(503, response.getStatusCodeValue());
+        assertEquals("4", response.getHeaders().getFirst("Retry-After"));
+        release.countDown();
+        assertEquals("escrito", await(inFlight).getBody());
+        // Una tarea posterior del mismo hilo confirma que la cancelada ya salió de la cola
+        assertEquals("después", await(endpointExecutors.submit(Workload.WRITES, () -> ResponseEntity.ok("después"))).getBody());
+        assertFalse(executed.get());
+        assertEquals(1.0, meterRegistry.get("endpoint.executor.timeouts").tags("pool", "writes", "stage", "queued")
+            .counter().count());
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Inicia el procesamiento asíncrono como lo hace Spring MVC y dispara el timeout del contenedor
+    private static ResponseEntity<?> expire(DeferredResult<ResponseEntity<?>> result) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, new MockHttpServletResponse()));
+        asyncManager.startDeferredResultProcessing(result);
+
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+        return (ResponseEntity<?>) asyncManager.getConcurrentResult();
+    }
+
+    private static void awaitTrue(AtomicBoolean flag) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!flag.get()) {
+            assertTrue(System.nanoTime() < deadline, "El handler no terminó");
+            Thread.sleep(5);
+        }
+    }
+
+    private static ResponseEntity<?> await(DeferredResult<ResponseEntity<?>> result) throws InterruptedException {
+        return (ResponseEntity<?>) awaitResult(result);
+    }
+
+    private static Object awaitResult(DeferredResult<ResponseEntity<?>> result) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.hasResult()) {
+            assertTrue(System.nanoTime() < deadline, "El pool no completó la petición");
+            Thread.sleep(5);
+        }
+        return result.getResult();
+    }
+}
@@ -0,0 +1,98 @@
+package com.juan.spring.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestConcurrencyLimitFilterTest {
+
+    @Test
+    void doFilter_WhenAllPermitsAreTaken_ShouldRejectWithServiceUnavailable() throws Exception {
+        VirtualThreadProperties properties = new VirtualThreadProperties();
+        properties.setMaxConcurrentRequests(1);
+        properties.setAcquireTimeout(Duration.ofMillis(20));
+        properties.setRetryAfterSeconds(3);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RequestConcurrencyLimitFilter filter = new RequestConcurrencyLimitFilter(properties, new ObjectMapper(), meterRegistry);
+
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> inFlight = executor.submit(() -> {
+                filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (req, res) -> {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                return null;
+            });
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+            MockHttpServletResponse rejected = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest(), rejected, (req, res) -> fail("No debió admitirse"));
+
+            assertEquals(503, rejected.getStatus());
+            assertEquals("3", rejected.getHeader("Retry-After"));
+            assertEquals(1.0, meterRegistry.get("http.server.admission.rejected").counter().count());
+            assertEquals(1.0, meterRegistry.get("http.server.admission.active").gauge().value());
+
+            release.countDown();
+            inFlight.get(5, TimeUnit.SECONDS);
+            assertEquals(1, filter.availablePermits());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void doFilter_WithFreePermits_ShouldPassThroughAndReleasePermit() throws Exception {
+        VirtualThreadProperties properties = new VirtualThreadProperties();
+        properties.setMaxConcurrentRequests(2);
+        RequestConcurrencyLimitFilter filter = new RequestConcurrencyLimitFilter(properties, new ObjectMapper(),
+            new SimpleMeterRegistry());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest(), response, (req, res) -> ((MockHttpServletResponse) res).setStatus(204));
+
+        assertEquals(204, response.getStatus());
+        assertEquals(2, filter.availablePermits());
+    }
+
+    @Test
+    void doFilter_WhenRequestGoesAsync_ShouldHoldPermitUntilAsyncCompletes() throws Exception {
+        VirtualThreadProperties properties = new VirtualThreadProperties();
+        properties.setMaxConcurrentRequests(1);
+        properties.setAcquireTimeout(Duration.ofMillis(20));
+        RequestConcurrencyLimitFilter filter = new RequestConcurrencyLimitFilter(properties, new ObjectMapper(),
+            new SimpleMeterRegistry());
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+
+        // Como un DeferredResult: el hilo de la petición sale del filtro y el trabajo sigue en otro pool
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        assertEquals(0, filter.availablePermits());
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), rejected, (req, res) -> fail("No debió admitirse"));
+        assertEquals(503, rejected.getStatus());
+
+        request.getAsyncContext().complete();
+        assertEquals(1, filter.availablePermits());
+    }
+}
@@ -0,0 +1,36 @@
+package com.juan.spring.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadsTest {
+
+    @Test
+    void newThreadPerTaskExecutor_OnJava21_ShouldRunTasksOnNamedVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreads.isSupported(), "Requiere Java 21+");
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("prueba-vt-");
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+            assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+            assertTrue(thread.getName().startsWith("prueba-vt-"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void newThreadPerTaskExecutor_BeforeJava21_ShouldFailWithClearMessage() {
+        assumeFalse(VirtualThreads.isSupported(), "Solo aplica a JVM anteriores a Java 21");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> VirtualThreads.newThreadPerTaskExecutor("prueba-vt-"));
+        assertTrue(e.getMessage().contains("Java 21"));
+    }
+}
@@ -0,0 +1,54 @@
+package com.juan.spring.controllers;
+
+import com.juan.spring.security.JwtTokenProvider;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.security.PublicKey;
+import java.util.Collections;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(JwksController.class)
+@Import(NoSecurityConfig.class)
+class JwksControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private JwtTokenProvider tokenProvider;
+
+    @Test
+    void getJwks_ShouldPublishPublicKeysWithCacheHeaders() throws Exception {
+        PublicKey publicKey = Keys.keyPairFor(SignatureAlgorithm.ES256).getPublic();
+        when(tokenProvider.obtenerClavesPublicas()).thenReturn(Collections.singletonMap("k1", publicKey));
+
+        mockMvc.perform(get("/.well-known/jwks.json"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Cache-Control", "max-age=300, public"))
+            .andExpect(content().contentType(JwksController.JWK_SET_CONTENT_TYPE))
+            .andExpect(jsonPath("$.keys[0].kid").value("k1"))
+            .andExpect(jsonPath("$.keys[0].kty").value("EC"))
+            .andExpect(jsonPath("$.keys[0].crv").value("P-256"))
+            .andExpect(jsonPath("$.keys[0].x").isNotEmpty())
+            .andExpect(jsonPath("$.keys[0].d").doesNotExist());
+    }
+
+    @Test
+    void getJwks_WithSymmetricKeys_ShouldPublishEmptySet() throws Exception {
+        when(tokenProvider.obtenerClavesPublicas()).thenReturn(Collections.emptyMap());
+
+        mockMvc.perform(get("/.well-known/jwks.json"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.keys").isEmpty());
+    }
+}
@@ -0,0 +1,81 @@
+package com.juan.spring.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juan.spring.dto.SignUpDto;
+import com.juan.spring.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica que el scrape de Prometheus exponga, sin autenticación, los nombres de métricas
+ * que usan los dashboards.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class MetricsEndpointTest {
+
+    private static final String CORREO = "metricas@metrics.test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findByCorreo(CORREO).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void prometheus_AfterRegistration_ShouldExposeStableMetricNames() throws Exception {
+        SignUpDto signUp = new SignUpDto();
+        signUp.setName("Métricas");
+        signUp.setCorreo(CORREO);
+        signUp.setContrasena("Password1!");
+        AsyncMockMvc.perform(mockMvc, post("/api/auth/registro")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(signUp)))
+            .andExpect(status().isOk());
+
+        AsyncMockMvc.perform(mockMvc, get("/actuator/prometheus"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+            .andExpect(content().string(containsString("uri=\"/api/auth/registro\"")))
+            .andExpect(content().string(containsString("auth_service_seconds_count{")))
+            .andExpect(content().string(containsString("method=\"register\"")))
+            .andExpect(content().string(containsString("users_service_seconds_bucket{")))
+            .andExpect(content().string(containsString("password_hashing_duration_seconds_bucket{")))
+            .andExpect(content().string(containsString("jwt_sign_seconds_count{")))
+            .andExpect(content().string(containsString("endpoint_executor_wait_seconds_count{")))
+            .andExpect(content().string(containsString("pool=\"auth\"")))
+            .andExpect(content().string(containsString("executor_active_threads{")))
+            .andExpect(content().string(containsString("hikaricp_connections_active{")))
+            .andExpect(content().string(containsString("hibernate_statements_total{")))
+            .andExpect(content().string(containsString("hibernate_second_level_cache_requests_total{")))
+            .andExpect(content().string(containsString("region=\"usuarios\"")))
+            .andExpect(content().string(containsString("hibernate_cache_query_requests_total{")));
+    }
+
+    @Test
+    void metrics_WithoutToken_ShouldRequireAuthentication() throws Exception {
+        AsyncMockMvc.perform(mockMvc, get("/actuator/metrics"))
+            .andExpect(status().isForbidden());
+    }
+}
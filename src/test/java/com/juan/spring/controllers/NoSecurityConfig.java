@@ -1,5 +1,6 @@
 package com.juan.spring.controllers;
 
+import com.juan.spring.config.SecurityConfig;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -11,7 +12,10 @@ public class NoSecurityConfig {
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
-            .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+            .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+            .headers(headers -> headers
+                .cacheControl().disable()
+                .addHeaderWriter(SecurityConfig.cacheControlExceptCacheableReads()));
         return http.build();
     }
 } 
\ No newline at end of file
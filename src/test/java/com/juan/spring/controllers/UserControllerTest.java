@@ -1,16 +1,26 @@
 package com.juan.spring.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juan.spring.config.EndpointExecutorProperties;
+import com.juan.spring.config.EndpointExecutors;
+import com.juan.spring.config.UserBatchProperties;
+import com.juan.spring.dto.UserBatchResultDto;
+import com.juan.spring.dto.UserBatchRowDto;
 import com.juan.spring.dto.UserCreateUpdateDto;
 import com.juan.spring.dto.UserDto;
+import com.juan.spring.dto.UserPageDto;
 import com.juan.spring.entities.User;
 import com.juan.spring.security.JwtTokenProvider;
+import com.juan.spring.security.PasswordHashingRejectedException;
 import com.juan.spring.services.UserService;
+import com.juan.spring.services.UserVersionMismatchException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
@@ -18,9 +28,14 @@ import org.springframework.context.annotation.Import;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -28,7 +43,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.mockito.ArgumentMatchers.argThat;
 
 @WebMvcTest(UserController.class)
-@Import(NoSecurityConfig.class)
+@Import({NoSecurityConfig.class, UserBatchProperties.class, EndpointExecutors.class, EndpointExecutorProperties.class,
+    SimpleMeterRegistry.class})
 public class UserControllerTest {
 
     @Autowired
@@ -62,6 +78,7 @@ public class UserControllerTest {
         testUser.setModificado(LocalDateTime.now());
         testUser.setUltimoLogin(LocalDateTime.now());
         testUser.setToken("test-token");
+        testUser.setVersion(3L);
 
         // Crear DTO de prueba
         testUserDto = new UserCreateUpdateDto();
@@ -85,10 +102,63 @@ public class UserControllerTest {
     }
 
     @Test
-    void getAllUsers_ShouldReturnListOfUsers() throws Exception {
+    void getAllUsers_ShouldReturnFirstPageWithCursor() throws Exception {
+        UserDto userDto = userService.convertToDto(testUser);
+        when(userService.getUsersPage(null, 1))
+            .thenReturn(new UserPageDto(Collections.singletonList(userDto), "siguiente", 1));
+
+        AsyncMockMvc.perform(mockMvc, get("/users").param("size", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.usuarios[0].nombre").value(testUser.getNombre()))
+            .andExpect(jsonPath("$.siguienteCursor").value("siguiente"))
+            .andExpect(jsonPath("$.tamano").value(1));
+
+        verify(userService).getUsersPage(null, 1);
+        verify(userService, never()).getAllUsers();
+    }
+
+    @Test
+    void getAllUsers_ShouldReturnPageFingerprintAsETag() throws Exception {
+        UserDto userDto = userService.convertToDto(testUser);
+        when(userService.getUsersPageVersion(null, 1)).thenReturn("huella");
+        when(userService.getUsersPage(null, 1))
+            .thenReturn(new UserPageDto(Collections.singletonList(userDto), "siguiente", 1));
+
+        AsyncMockMvc.perform(mockMvc, get("/users").param("size", "1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"huella\""))
+            .andExpect(header().string("Cache-Control", "no-cache, private"));
+    }
+
+    @Test
+    void getAllUsers_WithMatchingIfNoneMatch_ShouldReturnNotModifiedWithoutLoadingPage() throws Exception {
+        when(userService.getUsersPageVersion(null, 1)).thenReturn("huella");
+
+        AsyncMockMvc.perform(mockMvc, get("/users").param("size", "1").header("If-None-Match", "\"huella\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", "\"huella\""))
+            .andExpect(content().string(""));
+
+        verify(userService, never()).getUsersPage(any(), any());
+    }
+
+    @Test
+    void getAllUsers_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        when(userService.getUsersPageVersion(eq("invalido"), any()))
+            .thenThrow(new IllegalArgumentException("El cursor de paginación no es válido"));
+        when(userService.getUsersPage(eq("invalido"), any()))
+            .thenThrow(new IllegalArgumentException("El cursor de paginación no es válido"));
+
+        AsyncMockMvc.perform(mockMvc, get("/users").param("cursor", "invalido"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.errors[0]").value("El cursor de paginación no es válido"));
+    }
+
+    @Test
+    void getAllUsers_Unpaged_ShouldReturnListOfUsers() throws Exception {
         when(userService.getAllUsers()).thenReturn(Arrays.asList(testUser));
 
-        mockMvc.perform(get("/users"))
+        AsyncMockMvc.perform(mockMvc, get("/users").param("unpaged", "true"))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$[0].nombre").value(testUser.getNombre()))
             .andExpect(jsonPath("$[0].correo").value(testUser.getCorreo()))
@@ -97,11 +167,79 @@ public class UserControllerTest {
         verify(userService).getAllUsers();
     }
 
+    @Test
+    void exportUsers_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        UserDto first = userService.convertToDto(testUser);
+        UserDto second = new UserDto();
+        second.setId(UUID.randomUUID());
+        second.setNombre("Otro Usuario");
+        doAnswer(invocation -> {
+            Consumer<UserDto> consumer = invocation.getArgument(0);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(userService).exportUsers(any());
+
+        String body = AsyncMockMvc.perform(mockMvc, get("/users/export"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].startsWith("{"), "La segunda línea no empieza con '{': " + lines[1]);
+        assertEquals(testUser.getNombre(), objectMapper.readValue(lines[0], UserDto.class).getNombre());
+        assertEquals("Otro Usuario", objectMapper.readValue(lines[1], UserDto.class).getNombre());
+    }
+
+    @Test
+    void importUsers_WithJsonArray_ShouldReturnPerRowReport() throws Exception {
+        UUID createdId = UUID.randomUUID();
+        when(userService.importUsers(argThat(dtos -> dtos.size() == 2))).thenReturn(new UserBatchResultDto(Arrays.asList(
+            UserBatchRowDto.creado(0, "test@test.com", createdId),
+            UserBatchRowDto.rechazado(1, "otro", "Correo inválido"))));
+
+        UserCreateUpdateDto invalid = new UserCreateUpdateDto();
+        invalid.setCorreo("otro");
+        AsyncMockMvc.perform(mockMvc, post("/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Arrays.asList(testUserDto, invalid))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(2))
+            .andExpect(jsonPath("$.creados").value(1))
+            .andExpect(jsonPath("$.resultados[0].id").value(createdId.toString()))
+            .andExpect(jsonPath("$.resultados[1].estado").value(UserBatchRowDto.RECHAZADO));
+    }
+
+    @Test
+    void importUsers_WithNdjson_ShouldReadOneUserPerLine() throws Exception {
+        when(userService.importUsers(any())).thenReturn(new UserBatchResultDto(Collections.emptyList()));
+        String body = objectMapper.writeValueAsString(testUserDto) + "\n" + objectMapper.writeValueAsString(testUserDto) + "\n";
+
+        AsyncMockMvc.perform(mockMvc, post("/users/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+            .andExpect(status().isOk());
+
+        verify(userService).importUsers(argThat(dtos -> dtos.size() == 2
+            && "test@test.com".equals(dtos.get(1).getCorreo())));
+    }
+
+    @Test
+    void importUsers_WithMalformedNdjsonLine_ShouldReturnBadRequest() throws Exception {
+        AsyncMockMvc.perform(mockMvc, post("/users/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(objectMapper.writeValueAsString(testUserDto) + "\n{no es json\n"))
+            .andExpect(status().isBadRequest());
+
+        verify(userService, never()).importUsers(any());
+    }
+
     @Test
     void getUserById_WhenUserExists_ShouldReturnUser() throws Exception {
         when(userService.getUserById(testUser.getId())).thenReturn(Optional.of(testUser));
 
-        mockMvc.perform(get("/users/{id}", testUser.getId()))
+        AsyncMockMvc.perform(mockMvc, get("/users/{id}", testUser.getId()))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.nombre").value(testUser.getNombre()))
             .andExpect(jsonPath("$.correo").value(testUser.getCorreo()))
@@ -110,6 +248,38 @@ public class UserControllerTest {
         verify(userService).getUserById(testUser.getId());
     }
 
+    @Test
+    void getUserById_ShouldReturnVersionAsETag() throws Exception {
+        when(userService.getUserById(testUser.getId())).thenReturn(Optional.of(testUser));
+
+        AsyncMockMvc.perform(mockMvc, get("/users/{id}", testUser.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"3\""))
+            .andExpect(header().string("Cache-Control", "no-cache, private"));
+    }
+
+    @Test
+    void getUserById_WithMatchingIfNoneMatch_ShouldReturnNotModifiedWithoutLoadingUser() throws Exception {
+        when(userService.getUserVersion(testUser.getId())).thenReturn(Optional.of(3L));
+
+        AsyncMockMvc.perform(mockMvc, get("/users/{id}", testUser.getId()).header("If-None-Match", "W/\"2\", \"3\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", "\"3\""));
+
+        verify(userService, never()).getUserById(any());
+    }
+
+    @Test
+    void getUserById_WithStaleIfNoneMatch_ShouldReturnUser() throws Exception {
+        when(userService.getUserVersion(testUser.getId())).thenReturn(Optional.of(3L));
+        when(userService.getUserById(testUser.getId())).thenReturn(Optional.of(testUser));
+
+        AsyncMockMvc.perform(mockMvc, get("/users/{id}", testUser.getId()).header("If-None-Match", "\"2\""))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"3\""))
+            .andExpect(jsonPath("$.nombre").value(testUser.getNombre()));
+    }
+
     @Test
     void createUser_WithValidData_ShouldReturnCreatedUser() throws Exception {
         UserDto userDtoValido = new UserDto();
@@ -119,7 +289,7 @@ public class UserControllerTest {
         userDtoValido.setEstaActivo(testUserDto.getEstaActivo());
         when(userService.createUserWithValidation(any(UserCreateUpdateDto.class))).thenReturn(userDtoValido);
 
-        mockMvc.perform(post("/users")
+        AsyncMockMvc.perform(mockMvc, post("/users")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(testUserDto)))
             .andExpect(status().isCreated())
@@ -135,8 +305,8 @@ public class UserControllerTest {
         userDtoValido.setNombre(testUserDto.getNombre());
         userDtoValido.setCorreo(testUserDto.getCorreo());
         userDtoValido.setEstaActivo(testUserDto.getEstaActivo());
-        when(userService.updateUserWithValidation(eq(testUser.getId()), any(UserCreateUpdateDto.class))).thenReturn(userDtoValido);
-        mockMvc.perform(put("/users/{id}", testUser.getId())
+        when(userService.updateUserWithValidation(eq(testUser.getId()), any(UserCreateUpdateDto.class), isNull())).thenReturn(userDtoValido);
+        AsyncMockMvc.perform(mockMvc, put("/users/{id}", testUser.getId())
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(testUserDto)))
             .andExpect(status().isOk())
@@ -152,8 +322,8 @@ public class UserControllerTest {
         userDtoValido.setNombre(testUserDto.getNombre());
         userDtoValido.setCorreo(testUserDto.getCorreo());
         userDtoValido.setEstaActivo(testUserDto.getEstaActivo());
-        when(userService.partialUpdateUserWithValidation(eq(testUser.getId()), any(UserCreateUpdateDto.class))).thenReturn(userDtoValido);
-        mockMvc.perform(patch("/users/{id}", testUser.getId())
+        when(userService.partialUpdateUserWithValidation(eq(testUser.getId()), any(UserCreateUpdateDto.class), isNull())).thenReturn(userDtoValido);
+        AsyncMockMvc.perform(mockMvc, patch("/users/{id}", testUser.getId())
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(testUserDto)))
             .andExpect(status().isOk())
@@ -162,12 +332,69 @@ public class UserControllerTest {
             .andExpect(jsonPath("$.estaActivo").value(testUserDto.getEstaActivo()));
     }
 
+    @Test
+    void updateUser_WithIfMatch_ShouldPassVersionAndReturnNewETag() throws Exception {
+        UserDto updated = userService.convertToDto(testUser);
+        updated.setVersion(4L);
+        when(userService.updateUserWithValidation(eq(testUser.getId()), any(UserCreateUpdateDto.class), eq(Collections.singleton(3L))))
+            .thenReturn(updated);
+
+        AsyncMockMvc.perform(mockMvc, put("/users/{id}", testUser.getId())
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testUserDto)))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"4\""))
+            .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @Test
+    void updateUser_WithIfMatchList_ShouldPassEveryStrongVersion() throws Exception {
+        UserDto updated = userService.convertToDto(testUser);
+        updated.setVersion(5L);
+        when(userService.updateUserWithValidation(eq(testUser.getId()), any(UserCreateUpdateDto.class),
+                eq(new HashSet<>(Arrays.asList(3L, 4L)))))
+            .thenReturn(updated);
+
+        AsyncMockMvc.perform(mockMvc, put("/users/{id}", testUser.getId())
+                .header("If-Match", "\"3\", W/\"9\", \"4\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testUserDto)))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"5\""));
+    }
+
+    @Test
+    void partialUpdateUser_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        when(userService.partialUpdateUserWithValidation(eq(testUser.getId()), any(UserCreateUpdateDto.class), eq(Collections.singleton(2L))))
+            .thenThrow(new UserVersionMismatchException(testUser.getId(), 3L));
+
+        AsyncMockMvc.perform(mockMvc, patch("/users/{id}", testUser.getId())
+                .header("If-Match", "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testUserDto)))
+            .andExpect(status().isPreconditionFailed())
+            .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    void partialUpdateUser_WithWeakIfMatch_ShouldNeverMatch() throws Exception {
+        when(userService.partialUpdateUserWithValidation(eq(testUser.getId()), any(UserCreateUpdateDto.class), eq(Collections.emptySet())))
+            .thenThrow(new UserVersionMismatchException(testUser.getId(), 3L));
+
+        AsyncMockMvc.perform(mockMvc, patch("/users/{id}", testUser.getId())
+                .header("If-Match", "W/\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testUserDto)))
+            .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void deleteUser_WhenUserExists_ShouldReturnNoContent() throws Exception {
         when(userService.existsById(testUser.getId())).thenReturn(true);
         doNothing().when(userService).deleteUser(testUser.getId());
 
-        mockMvc.perform(delete("/users/{id}", testUser.getId()))
+        AsyncMockMvc.perform(mockMvc, delete("/users/{id}", testUser.getId()))
             .andExpect(status().isNoContent());
 
         verify(userService).deleteUser(testUser.getId());
@@ -178,7 +405,7 @@ public class UserControllerTest {
         UUID nonExistentId = UUID.randomUUID();
         when(userService.getUserById(nonExistentId)).thenReturn(Optional.empty());
 
-        mockMvc.perform(get("/users/{id}", nonExistentId))
+        AsyncMockMvc.perform(mockMvc, get("/users/{id}", nonExistentId))
             .andExpect(status().isNotFound());
 
         verify(userService).getUserById(nonExistentId);
@@ -187,9 +414,9 @@ public class UserControllerTest {
     @Test
     void updateUser_WithNonExistentId_ShouldReturnNotFound() throws Exception {
         UUID nonExistentId = UUID.randomUUID();
-        when(userService.updateUserWithValidation(eq(nonExistentId), any(UserCreateUpdateDto.class)))
+        when(userService.updateUserWithValidation(eq(nonExistentId), any(UserCreateUpdateDto.class), any()))
             .thenThrow(new IllegalStateException("Usuario con ID " + nonExistentId + " no encontrado"));
-        mockMvc.perform(put("/users/{id}", nonExistentId)
+        AsyncMockMvc.perform(mockMvc, put("/users/{id}", nonExistentId)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(testUserDto)))
             .andExpect(status().isNotFound());
@@ -200,7 +427,7 @@ public class UserControllerTest {
         when(userService.createUserWithValidation(argThat(dto -> "invalid-email".equals(dto.getCorreo()))))
             .thenThrow(new IllegalArgumentException("El correo electrónico debe tener un formato válido (ejemplo: usuario@dominio.com)"));
         testUserDto.setCorreo("invalid-email");
-        mockMvc.perform(post("/users")
+        AsyncMockMvc.perform(mockMvc, post("/users")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(testUserDto)))
             .andExpect(status().isBadRequest());
@@ -211,17 +438,38 @@ public class UserControllerTest {
         when(userService.createUserWithValidation(argThat(dto -> "123".equals(dto.getContrasena()))))
             .thenThrow(new IllegalArgumentException("La contraseña debe tener al menos 8 caracteres, una mayúscula, una minúscula, un número y un carácter especial"));
         testUserDto.setContrasena("123");
-        mockMvc.perform(post("/users")
+        AsyncMockMvc.perform(mockMvc, post("/users")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(testUserDto)))
             .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createUser_WhenPasswordHashingIsSaturated_ShouldReturnServiceUnavailable() throws Exception {
+        when(userService.createUserWithValidation(any(UserCreateUpdateDto.class)))
+            .thenThrow(new PasswordHashingRejectedException("El servicio de autenticación está saturado", 1));
+        AsyncMockMvc.perform(mockMvc, post("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testUserDto)))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void createUser_WhenUniqueConstraintIsViolated_ShouldReturnConflict() throws Exception {
+        when(userService.createUserWithValidation(any(UserCreateUpdateDto.class)))
+            .thenThrow(new DataIntegrityViolationException("ux_usuarios_correo_normalizado"));
+        AsyncMockMvc.perform(mockMvc, post("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testUserDto)))
+            .andExpect(status().isConflict());
+    }
+
     @Test
     void createUser_WithExistingEmail_ShouldReturnConflict() throws Exception {
         when(userService.createUserWithValidation(any(UserCreateUpdateDto.class)))
             .thenThrow(new IllegalStateException("El correo test@test.com ya está registrado"));
-        mockMvc.perform(post("/users")
+        AsyncMockMvc.perform(mockMvc, post("/users")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(testUserDto)))
             .andExpect(status().isConflict());
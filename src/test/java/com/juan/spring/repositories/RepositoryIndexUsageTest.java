@@ -0,0 +1,185 @@
+package com.juan.spring.repositories;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ejecuta cada consulta de los repositorios, captura el SQL que genera Hibernate y verifica con EXPLAIN de H2
+ * que se resuelve con el índice esperado y sin recorrer tablas completas. Las consultas se ejecutan en una
+ * transacción que se revierte, así que las de borrado no modifican los datos.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.juan.spring.repositories.RecordingStatementInspector",
+    "spring.jpa.show-sql=false"
+})
+class RepositoryIndexUsageTest {
+
+    private static final int USERS = 200;
+    private static final String DOMINIO = "@indices.test";
+    private static final String TABLE_SCAN = "tableScan";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PhoneRepository phoneRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final UUID userId = UUID.randomUUID();
+    private final LocalDateTime creado = LocalDateTime.now();
+
+    // Datos suficientes para que el optimizador de H2 compare el costo del índice contra el de recorrer la tabla
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("insert into usuarios (id, nombre, correo, correo_normalizado, contrasena, esta_activo, creado) "
+            + "select cast(random_uuid() as varchar), 'Indice ' || x, 'indice' || x || '" + DOMINIO + "', "
+            + "'indice' || x || '" + DOMINIO + "', 'x', true, dateadd('SECOND', x, current_timestamp) "
+            + "from system_range(1, ?)", USERS);
+        jdbcTemplate.update("insert into telefonos (id, user_id, numero, codigo_ciudad, codigo_pais) "
+            + "select next value for telefonos_seq, id, '300' || nombre, mod(rownum, 30), mod(rownum, 5) "
+            + "from usuarios where correo like ?", "%" + DOMINIO);
+        jdbcTemplate.execute("analyze");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from telefonos where user_id in (select id from usuarios where correo like ?)", "%" + DOMINIO);
+        jdbcTemplate.update("delete from usuarios where correo like ?", "%" + DOMINIO);
+    }
+
+    @Test
+    void phoneQueries_ShouldUseIndexes() {
+        assertUsesIndex("IX_TELEFONOS_USER_ID", () -> phoneRepository.findByUserId(userId));
+        assertUsesIndex("IX_TELEFONOS_USER_ID", () -> phoneRepository.deleteByUserId(userId));
+        assertUsesIndex("IX_TELEFONOS_CODIGO_PAIS_CIUDAD", () -> phoneRepository.findByCodigoPais("57"));
+        assertUsesIndex("IX_TELEFONOS_CODIGO_CIUDAD", () -> phoneRepository.findByCodigoCiudad("1"));
+        assertUsesIndex("IX_TELEFONOS_NUMERO", () -> phoneRepository.findByNumero("3001234567"));
+    }
+
+    @Test
+    void userLookups_ShouldUseIndexes() {
+        assertUsesIndex("UX_USUARIOS_CORREO", () -> userRepository.findByCorreo("indice1" + DOMINIO));
+        assertUsesIndex("UX_USUARIOS_CORREO_NORMALIZADO",
+            () -> userRepository.existsByCorreoNormalizado("indice1" + DOMINIO));
+        assertUsesIndex("UX_USUARIOS_CORREO_NORMALIZADO",
+            () -> userRepository.existsByCorreoNormalizadoAndIdNot("indice1" + DOMINIO, userId));
+        assertUsesIndex("UX_USUARIOS_CORREO_NORMALIZADO",
+            () -> userRepository.findRegisteredCorreosNormalizados(Arrays.asList("indice1" + DOMINIO, "indice2" + DOMINIO)));
+        assertUsesIndex("PRIMARY_KEY", () -> userRepository.findVersionById(userId));
+        assertUsesIndex("PRIMARY_KEY", () -> userRepository.findTokenVersionById(userId));
+        assertUsesIndex("IX_TELEFONOS_USER_ID", () -> userRepository.findWithTelefonosById(userId));
+        assertUsesIndex("IX_TELEFONOS_USER_ID", () -> userRepository.fetchTelefonos(Arrays.asList(userId, UUID.randomUUID())));
+    }
+
+    @Test
+    void cursorPages_ShouldReadInIndexOrder() {
+        PageRequest page = PageRequest.of(0, 50);
+        assertUsesIndex("IX_USUARIOS_CREADO_ID", () -> userRepository.findFirstPage(page));
+        assertUsesIndex("IX_USUARIOS_CREADO_ID", () -> userRepository.findPageAfter(creado, userId, page));
+        assertUsesIndex("IX_USUARIOS_CREADO_ID", () -> userRepository.findFirstPageVersions(page));
+        assertUsesIndex("IX_USUARIOS_CREADO_ID", () -> userRepository.findPageVersionsAfter(creado, userId, page));
+    }
+
+    @Test
+    void refreshTokenQueries_ShouldUseIndexes() {
+        assertUsesIndex("UX_REFRESH_TOKENS_TOKEN_HASH", () -> refreshTokenRepository.findByTokenHash("hash"));
+        assertUsesIndex("PRIMARY_KEY", () -> refreshTokenRepository.markUsed(1L));
+        assertUsesIndex("IX_REFRESH_TOKENS_FAMILIA", () -> refreshTokenRepository.deleteByFamilia(userId));
+        assertUsesIndex("IX_REFRESH_TOKENS_USUARIO_ID", () -> refreshTokenRepository.deleteByUsuarioId(userId));
+        assertUsesIndex("IX_REFRESH_TOKENS_EXPIRA", () -> refreshTokenRepository.deleteExpired(creado));
+    }
+
+    // streamAll y streamCorreosNormalizados leen la tabla completa a propósito (exportación y carga del filtro
+    // de correos), así que no se verifican aquí
+
+    /**
+     * Ejecuta la consulta, obtiene el plan de cada SELECT, UPDATE o DELETE que generó y exige que alguno use
+     * el índice indicado y que ninguno recorra una tabla completa.
+     */
+    private void assertUsesIndex(String index, Runnable query) {
+        RecordingStatementInspector.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            query.run();
+            status.setRollbackOnly();
+        });
+
+        List<String> plans = RecordingStatementInspector.statements().stream()
+            .filter(sql -> !sql.trim().toLowerCase().startsWith("insert") && !sql.contains("next value for"))
+            .map(this::explain)
+            .collect(Collectors.toList());
+
+        assertFalse(plans.isEmpty(), "La consulta no ejecutó SQL");
+        plans.forEach(plan -> assertFalse(plan.contains(TABLE_SCAN), "Recorre la tabla completa:\n" + plan));
+        assertTrue(plans.stream().anyMatch(plan -> plan.toUpperCase().contains("PUBLIC." + index)),
+            "No usa " + index + ":\n" + String.join("\n", plans));
+    }
+
+    // EXPLAIN necesita los parámetros asignados; el plan no depende de los valores, solo de su tipo
+    private String explain(String sql) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+            ParameterMetaData parameters = statement.getParameterMetaData();
+            for (int i = 1; i <= parameters.getParameterCount(); i++) {
+                statement.setObject(i, sampleValue(parameters.getParameterType(i)));
+            }
+            try (ResultSet plan = statement.executeQuery()) {
+                assertTrue(plan.next());
+                return plan.getString(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo obtener el plan de: " + sql, e);
+        }
+    }
+
+    private Object sampleValue(int sqlType) {
+        switch (sqlType) {
+            case Types.TIMESTAMP:
+                return Timestamp.valueOf(creado);
+            case Types.BIGINT:
+            case Types.INTEGER:
+                return 1;
+            case Types.BOOLEAN:
+                return false;
+            default:
+                return "x";
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.juan.spring.security;
+
+import com.juan.spring.config.PasswordHashingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        encoder.shutdown();
+    }
+
+    @Test
+    void encodeAndMatches_ShouldDelegateAndRecordTimings() {
+        encoder = new BoundedPasswordEncoder(new PrefixEncoder(null), properties(1, 1), meterRegistry);
+
+        String encoded = encoder.encode("secreto");
+
+        assertEquals("hash:secreto", encoded);
+        assertTrue(encoder.matches("secreto", encoded));
+        assertEquals(1, meterRegistry.get("password.hashing.duration").tag("operation", "encode").timer().count());
+        assertEquals(1, meterRegistry.get("password.hashing.duration").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void encodeAll_ShouldKeepInputOrderWithoutFillingTheQueue() {
+        encoder = new BoundedPasswordEncoder(new PrefixEncoder(null), properties(2, 1), meterRegistry);
+
+        List<String> encoded = encoder.encodeAll(Arrays.asList("a", "b", "c", "d", "e"));
+
+        assertEquals(Arrays.asList("hash:a", "hash:b", "hash:c", "hash:d", "hash:e"), encoded);
+        assertEquals(0.0, meterRegistry.get("password.hashing.rejected").counter().count());
+    }
+
+    @Test
+    void encode_WhenPoolAndQueueAreFull_ShouldRejectImmediately() throws Exception {
+        encoder = new BoundedPasswordEncoder(new PrefixEncoder(release), properties(1, 1), meterRegistry);
+        // Un hash ocupando el único hilo y otro esperando en la única posición de la cola
+        callers.submit(() -> encoder.encode("a"));
+        callers.submit(() -> encoder.encode("b"));
+        waitForQueueDepth(1);
+
+        PasswordHashingRejectedException rejected =
+            assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("c"));
+
+        assertEquals(1, rejected.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count());
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("password.hashing.queue.depth").gauge().value() < depth) {
+            assertTrue(System.nanoTime() < deadline, "La cola no alcanzó la profundidad esperada");
+            Thread.sleep(10);
+        }
+    }
+
+    private static PasswordHashingProperties properties(int threads, int queueCapacity) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setThreads(threads);
+        properties.setQueueCapacity(queueCapacity);
+        return properties;
+    }
+
+    // Encoder trivial que opcionalmente se bloquea hasta que el test lo libera
+    private static final class PrefixEncoder implements PasswordEncoder {
+        private final CountDownLatch release;
+
+        private PrefixEncoder(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
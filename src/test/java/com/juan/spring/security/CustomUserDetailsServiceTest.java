@@ -0,0 +1,93 @@
+package com.juan.spring.security;
+
+import com.juan.spring.entities.User;
+import com.juan.spring.repositories.UserRepository;
+import com.juan.spring.services.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CustomUserDetailsServiceTest {
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setNombre("Cache");
+        user.setCorreo("cache@cache.test");
+        user.setContrasena("hash-inicial");
+        user.setEstaActivo(true);
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (userRepository.existsById(user.getId())) {
+            userService.deleteUser(user.getId());
+        }
+    }
+
+    @Test
+    void loadUserByUsername_ShouldServeRepeatedLookupsFromCache() {
+        long hits = userDetailsCache.stats().hitCount();
+        long misses = userDetailsCache.stats().missCount();
+
+        userDetailsService.loadUserByUsername("cache@cache.test");
+        UserDetails cached = userDetailsService.loadUserByUsername("cache@cache.test");
+
+        assertEquals(misses + 1, userDetailsCache.stats().missCount());
+        assertEquals(hits + 1, userDetailsCache.stats().hitCount());
+        assertEquals("hash-inicial", cached.getPassword());
+    }
+
+    @Test
+    void loadUserByUsername_ShouldReturnCopiesThatSurviveCredentialErasure() {
+        UserDetails first = userDetailsService.loadUserByUsername("cache@cache.test");
+        ((org.springframework.security.core.userdetails.User) first).eraseCredentials();
+
+        assertEquals("hash-inicial", userDetailsService.loadUserByUsername("cache@cache.test").getPassword());
+    }
+
+    @Test
+    void partialUpdateUser_ShouldInvalidateOldAndNewEmail() {
+        userDetailsService.loadUserByUsername("cache@cache.test");
+
+        User changes = new User();
+        changes.setCorreo("cache-nuevo@cache.test");
+        changes.setContrasena("hash-nuevo");
+        userService.partialUpdateUser(user.getId(), changes);
+
+        assertEquals("hash-nuevo", userDetailsService.loadUserByUsername("cache-nuevo@cache.test").getPassword());
+        assertThrows(org.springframework.security.core.userdetails.UsernameNotFoundException.class,
+            () -> userDetailsService.loadUserByUsername("cache@cache.test"));
+    }
+
+    @Test
+    void deleteUser_ShouldInvalidateCachedUser() {
+        userDetailsService.loadUserByUsername("cache@cache.test");
+
+        userService.deleteUser(user.getId());
+
+        assertThrows(org.springframework.security.core.userdetails.UsernameNotFoundException.class,
+            () -> userDetailsService.loadUserByUsername("cache@cache.test"));
+    }
+}
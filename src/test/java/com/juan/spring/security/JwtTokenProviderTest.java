@@ -0,0 +1,307 @@
+package com.juan.spring.security;
+
+import com.juan.spring.config.JwtProperties;
+import com.juan.spring.config.TokenVersionCacheProperties;
+import com.juan.spring.config.VerifiedTokenCacheProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyFactory;
+import java.security.KeyStore;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtProperties jwtProperties;
+    private final Map<UUID, Integer> tokenVersions = new HashMap<>();
+    private TokenRevocationRegistry revocationRegistry;
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtProperties = new JwtProperties();
+        revocationRegistry = new TokenRevocationRegistry(userId -> Optional.of(tokenVersions.getOrDefault(userId, 0)),
+            new TokenVersionCacheProperties(), meterRegistry);
+        tokenProvider = newProvider(meterRegistry);
+    }
+
+    private JwtTokenProvider newProvider(SimpleMeterRegistry registry) {
+        JwtTokenProvider provider = new JwtTokenProvider(jwtProperties, new VerifiedTokenCacheProperties(),
+            revocationRegistry, registry);
+        provider.init();
+        return provider;
+    }
+
+    @Test
+    void verificarToken_WithValidToken_ShouldReturnClaims() {
+        String token = tokenProvider.generarToken(new UsernamePasswordAuthenticationToken("jwt@jwt.test", null));
+
+        JwtVerificationResult result = tokenProvider.verificarToken(token);
+
+        assertTrue(result.isValid());
+        assertEquals("jwt@jwt.test", result.getClaims().getSubject());
+        assertEquals("jwt@jwt.test", tokenProvider.obtenerUsernameDelJWT(token));
+    }
+
+    @Test
+    void verificarToken_WithRepeatedToken_ShouldHitCache() {
+        String token = tokenProvider.generarToken(new UsernamePasswordAuthenticationToken("jwt@jwt.test", null));
+
+        tokenProvider.verificarToken(token);
+        tokenProvider.verificarToken(token);
+
+        double hits = meterRegistry.get("cache.gets")
+            .tag("cache", JwtTokenProvider.VERIFIED_TOKENS_CACHE_NAME)
+            .tag("result", "hit")
+            .functionCounter().count();
+        assertEquals(1.0, hits);
+    }
+
+    @Test
+    void verificarToken_WithTokenFromAnotherKey_ShouldReportInvalidSignature() {
+        JwtTokenProvider otherProvider = newProvider(new SimpleMeterRegistry());
+        String foreignToken = otherProvider.generarToken(new UsernamePasswordAuthenticationToken("jwt@jwt.test", null));
+
+        JwtVerificationResult result = tokenProvider.verificarToken(foreignToken);
+
+        assertFalse(result.isValid());
+        assertEquals(JwtVerificationResult.Failure.INVALID_SIGNATURE, result.getFailure());
+        assertFalse(tokenProvider.validarToken(foreignToken));
+    }
+
+    @Test
+    void verificarToken_WithMalformedOrEmptyToken_ShouldReportFailure() {
+        assertEquals(JwtVerificationResult.Failure.MALFORMED, tokenProvider.verificarToken("no.es.jwt").getFailure());
+        assertEquals(JwtVerificationResult.Failure.EMPTY, tokenProvider.verificarToken("").getFailure());
+        assertEquals(JwtVerificationResult.Failure.EMPTY, tokenProvider.verificarToken(null).getFailure());
+    }
+
+    @Test
+    void generarToken_InSelfContainedMode_ShouldCarryIdRolesAndVersion() {
+        jwtProperties.setJwtSelfContained(true);
+        UUID userId = UUID.randomUUID();
+        String token = tokenProvider.generarToken(new UsernamePasswordAuthenticationToken(
+            "jwt@jwt.test", null, CustomUserDetailsService.DEFAULT_AUTHORITIES), userId);
+
+        Claims claims = tokenProvider.verificarToken(token).getClaims();
+        assertTrue(tokenProvider.esAutocontenido(claims));
+        assertFalse(tokenProvider.estaRevocado(claims));
+
+        AuthenticatedUser user = tokenProvider.obtenerUsuarioDeClaims(claims);
+        assertEquals(userId, user.getId());
+        assertEquals("jwt@jwt.test", user.getUsername());
+        assertEquals(CustomUserDetailsService.DEFAULT_AUTHORITIES, new ArrayList<>(user.getAuthorities()));
+    }
+
+    @Test
+    void estaRevocado_AfterRevokingUserTokens_ShouldRejectOlderVersions() {
+        jwtProperties.setJwtSelfContained(true);
+        UUID userId = UUID.randomUUID();
+        String oldToken = tokenProvider.generarToken(new UsernamePasswordAuthenticationToken("jwt@jwt.test", null), userId);
+
+        tokenVersions.put(userId, 1);
+        revocationRegistry.invalidate(userId);
+        String newToken = tokenProvider.generarToken(new UsernamePasswordAuthenticationToken("jwt@jwt.test", null), userId);
+
+        assertTrue(tokenProvider.estaRevocado(tokenProvider.verificarToken(oldToken).getClaims()));
+        assertFalse(tokenProvider.estaRevocado(tokenProvider.verificarToken(newToken).getClaims()));
+    }
+
+    @Test
+    void generarToken_WithSelfContainedModeDisabled_ShouldOnlyCarrySubject() {
+        String token = tokenProvider.generarToken(new UsernamePasswordAuthenticationToken("jwt@jwt.test", null), UUID.randomUUID());
+
+        assertFalse(tokenProvider.esAutocontenido(tokenProvider.verificarToken(token).getClaims()));
+    }
+
+    @Test
+    void verificarToken_WithSharedSecret_ShouldAcceptTokensFromOtherInstance() {
+        byte[] secreto = new byte[64];
+        new SecureRandom().nextBytes(secreto);
+        jwtProperties.setJwtSecret(Base64.getEncoder().encodeToString(secreto));
+        String token = newProvider(new SimpleMeterRegistry())
+            .generarToken(new UsernamePasswordAuthenticationToken("jwt@jwt.test", null));
+
+        assertTrue(newProvider(new SimpleMeterRegistry()).verificarToken(token).isValid());
+        assertFalse(tokenProvider.verificarToken(token).isValid());
+    }
+
+    @Test
+    void generarToken_ShouldCarryKidAndExpiration() {
+        String token = tokenProvider.generarToken(new UsernamePasswordAuthenticationToken("jwt@jwt.test", null));
+
+        Claims claims = tokenProvider.verificarToken(token).getClaims();
+        assertNotNull(kidOf(token));
+        assertEquals(jwtProperties.getJwtExpirationMilliseconds(),
+            claims.getExpiration().getTime() - claims.getIssuedAt().getTime());
+    }
+
+    @Test
+    void verificarToken_WithExpiredToken_ShouldReportExpired() throws InterruptedException {
+        jwtProperties.setJwtExpirationMilliseconds(1);
+        jwtProperties.setJwtClockSkew(Duration.ZERO);
+        JwtTokenProvider provider = newProvider(new SimpleMeterRegistry());
+        String token = provider.generarToken(new UsernamePasswordAuthenticationToken("jwt@jwt.test", null));
+        Thread.sleep(1100);
+
+        assertEquals(JwtVerificationResult.Failure.EXPIRED, provider.verificarToken(token).getFailure());
+    }
+
+    @Test
+    void verificarToken_AfterRotation_ShouldAcceptTokensFromVerifyOnlyKeys() {
+        String k1 = randomSecret();
+        jwtProperties.getJwtKeys().put("k1", k1);
+        jwtProperties.setJwtActiveKid("k1");
+        JwtTokenProvider before = newProvider(new SimpleMeterRegistry());
+        String oldToken = before.generarToken(new UsernamePasswordAuthenticationToken("jwt@jwt.test", null));
+
+        jwtProperties.getJwtKeys().put("k2", randomSecret());
+        jwtProperties.setJwtActiveKid("k2");
+        JwtTokenProvider after = newProvider(new SimpleMeterRegistry());
+        String newToken = after.generarToken(new UsernamePasswordAuthenticationToken("jwt@jwt.test", null));
+
+        assertEquals("k1", kidOf(oldToken));
+        assertEquals("k2", kidOf(newToken));
+        assertTrue(after.verificarToken(oldToken).isValid());
+        assertEquals(JwtVerificationResult.Failure.INVALID_SIGNATURE, before.verificarToken(newToken).getFailure());
+    }
+
+    @Test
+    void recargarClaves_WhenKeystoreChanges_ShouldRotateAndRetireKeys(@TempDir Path dir) throws Exception {
+        Path keystore = dir.resolve("jwt.p12");
+        SecretKey k1 = randomKey();
+        writeKeystore(keystore, Collections.singletonMap("k1", k1));
+        jwtProperties.setJwtKeystore(keystore.toString());
+        jwtProperties.setJwtKeystorePassword("secreto");
+        JwtTokenProvider provider = newProvider(new SimpleMeterRegistry());
+        String oldToken = provider.generarToken(new UsernamePasswordAuthenticationToken("jwt@jwt.test", null));
+        assertFalse(provider.recargarClaves());
+
+        // La clave nueva se crea después, así que pasa a ser la activa; k1 queda solo para verificar
+        Thread.sleep(5);
+        Map<String, SecretKey> rotated = new LinkedHashMap<>();
+        rotated.put("k1", k1);
+        rotated.put("k2", randomKey());
+        writeKeystore(keystore, rotated);
+        assertTrue(provider.recargarClaves());
+        String newToken = provider.generarToken(new UsernamePasswordAuthenticationToken("jwt@jwt.test", null));
+        assertEquals("k2", kidOf(newToken));
+        assertTrue(provider.verificarToken(oldToken).isValid());
+
+        rotated.remove("k1");
+        writeKeystore(keystore, rotated);
+        assertTrue(provider.recargarClaves());
+        assertEquals(JwtVerificationResult.Failure.INVALID_SIGNATURE, provider.verificarToken(oldToken).getFailure());
+        assertTrue(provider.verificarToken(newToken).isValid());
+    }
+
+    @Test
+    void generarToken_WithES256_ShouldBeVerifiableWithPublishedJwk() throws Exception {
+        jwtProperties.setJwtAlgorithm("ES256");
+        JwtTokenProvider provider = newProvider(new SimpleMeterRegistry());
+        String token = provider.generarToken(new UsernamePasswordAuthenticationToken("jwt@jwt.test", null));
+
+        assertTrue(provider.verificarToken(token).isValid());
+        assertEquals(JwtVerificationResult.Failure.INVALID_SIGNATURE, tokenProvider.verificarToken(token).getFailure());
+
+        // Otro servicio reconstruye la clave pública desde el JWKS y verifica el token sin consultar a este
+        List<?> keys = (List<?>) JwkSet.of(provider.obtenerClavesPublicas()).get("keys");
+        assertEquals(1, keys.size());
+        Map<?, ?> jwk = (Map<?, ?>) keys.get(0);
+        assertEquals(kidOf(token), jwk.get("kid"));
+        assertEquals("ES256", jwk.get("alg"));
+        ECParameterSpec p256 = ((ECPublicKey) provider.obtenerClavesPublicas().get(jwk.get("kid"))).getParams();
+        PublicKey rebuilt = KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(
+            new ECPoint(coordinate(jwk.get("x")), coordinate(jwk.get("y"))), p256));
+        Claims claims = Jwts.parserBuilder().setSigningKey(rebuilt).build().parseClaimsJws(token).getBody();
+        assertEquals("jwt@jwt.test", claims.getSubject());
+    }
+
+    @Test
+    void obtenerClavesPublicas_WithHS512_ShouldNotPublishSecretKeys() {
+        assertTrue(tokenProvider.obtenerClavesPublicas().isEmpty());
+        assertEquals(Collections.emptyList(), JwkSet.of(tokenProvider.obtenerClavesPublicas()).get("keys"));
+    }
+
+    @Test
+    void init_WithES256AndSharedSecret_ShouldFail() {
+        jwtProperties.setJwtAlgorithm("ES256");
+        jwtProperties.setJwtSecret(randomSecret());
+
+        assertThrows(IllegalStateException.class, () -> newProvider(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void init_WithShortSecret_ShouldFail() {
+        jwtProperties.setJwtSecret(Base64.getEncoder().encodeToString(new byte[32]));
+
+        assertThrows(IllegalStateException.class, () -> newProvider(new SimpleMeterRegistry()));
+    }
+
+    private static String kidOf(String token) {
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))),
+            StandardCharsets.UTF_8);
+        Matcher kid = Pattern.compile("\"kid\":\"([^\"]+)\"").matcher(header);
+        return kid.find() ? kid.group(1) : null;
+    }
+
+    private static BigInteger coordinate(Object base64Url) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode((String) base64Url));
+    }
+
+    private static String randomSecret() {
+        return Base64.getEncoder().encodeToString(randomKey().getEncoded());
+    }
+
+    private static SecretKey randomKey() {
+        byte[] secreto = new byte[64];
+        new SecureRandom().nextBytes(secreto);
+        return new SecretKeySpec(secreto, "HmacSHA512");
+    }
+
+    private static void writeKeystore(Path path, Map<String, SecretKey> keys) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        KeyStore.PasswordProtection password = new KeyStore.PasswordProtection("secreto".toCharArray());
+        for (Map.Entry<String, SecretKey> entry : keys.entrySet()) {
+            keyStore.setEntry(entry.getKey(), new KeyStore.SecretKeyEntry(entry.getValue()), password);
+            Thread.sleep(5);
+        }
+        try (OutputStream out = Files.newOutputStream(path)) {
+            keyStore.store(out, "secreto".toCharArray());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.juan.spring.security;
+
+import com.juan.spring.controllers.AsyncMockMvc;
+import com.juan.spring.config.JwtProperties;
+import com.juan.spring.config.TokenVersionCacheProperties;
+import com.juan.spring.entities.User;
+import com.juan.spring.repositories.UserRepository;
+import com.juan.spring.services.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SelfContainedTokenIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtProperties jwtProperties;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private TokenVersionStore tokenVersionStore;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        jwtProperties.setJwtSelfContained(true);
+        user = new User();
+        user.setNombre("Autocontenido");
+        user.setCorreo("autocontenido@jwt.test");
+        user.setContrasena("x");
+        user.setEstaActivo(true);
+        user = userRepository.save(user);
+        token = tokenProvider.generarToken(new UsernamePasswordAuthenticationToken(
+            user.getCorreo(), null, CustomUserDetailsService.DEFAULT_AUTHORITIES), user.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jwtProperties.setJwtSelfContained(false);
+        if (userRepository.existsById(user.getId())) {
+            userRepository.deleteById(user.getId());
+        }
+    }
+
+    @Test
+    void getUserById_WithSelfContainedToken_ShouldIssueSingleQuery() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        AsyncMockMvc.perform(mockMvc, get("/users/{id}", user.getId()).header("Authorization", "Bearer " + token))
+            .andExpect(status().isOk());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getUserById_WithCurrentETag_ShouldAnswerNotModifiedWithoutQueries() throws Exception {
+        String etag = AsyncMockMvc.perform(mockMvc, get("/users/{id}", user.getId()).header("Authorization", "Bearer " + token))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Cache-Control", "no-cache, private"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        AsyncMockMvc.perform(mockMvc, get("/users/{id}", user.getId())
+                .header("Authorization", "Bearer " + token)
+                .header("If-None-Match", etag))
+            .andExpect(status().isNotModified());
+
+        // La versión sale del usuario en la caché de segundo nivel, cargado por el GET anterior
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getUserById_WithRevokedToken_ShouldBeRejected() throws Exception {
+        changePassword();
+
+        AsyncMockMvc.perform(mockMvc, get("/users/{id}", user.getId()).header("Authorization", "Bearer " + token))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void revocation_ShouldSurviveAFreshRegistry() {
+        int tokenVersion = tokenProvider.obtenerVersion(tokenProvider.verificarToken(token).getClaims());
+        changePassword();
+
+        // Otra instancia, o esta misma tras reiniciar: la versión sale de la base y no de la memoria del proceso
+        TokenRevocationRegistry freshRegistry = new TokenRevocationRegistry(tokenVersionStore,
+            new TokenVersionCacheProperties(), new SimpleMeterRegistry());
+        assertTrue(freshRegistry.isRevoked(user.getId(), tokenVersion));
+        assertFalse(freshRegistry.isRevoked(user.getId(), freshRegistry.currentVersion(user.getId())));
+
+        userService.deleteUser(user.getId());
+        assertTrue(new TokenRevocationRegistry(tokenVersionStore, new TokenVersionCacheProperties(),
+            new SimpleMeterRegistry()).isRevoked(user.getId(), tokenVersion + 1));
+    }
+
+    private void changePassword() {
+        User changes = new User();
+        changes.setContrasena("otra");
+        userService.partialUpdateUser(user.getId(), changes);
+    }
+}
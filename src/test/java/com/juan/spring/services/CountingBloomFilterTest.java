@@ -0,0 +1,53 @@
+package com.juan.spring.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountingBloomFilterTest {
+
+    private static final int ITEMS = 10_000;
+
+    @Test
+    void mightContain_ShouldNeverMissAddedValues() {
+        CountingBloomFilter filter = new CountingBloomFilter(ITEMS, 0.01);
+        for (int i = 0; i < ITEMS; i++) {
+            filter.add("usuario" + i + "@bloom.test");
+        }
+
+        for (int i = 0; i < ITEMS; i++) {
+            assertTrue(filter.mightContain("usuario" + i + "@bloom.test"));
+        }
+    }
+
+    @Test
+    void mightContain_ShouldKeepFalsePositiveRateNearConfiguredValue() {
+        CountingBloomFilter filter = new CountingBloomFilter(ITEMS, 0.01);
+        for (int i = 0; i < ITEMS; i++) {
+            filter.add("usuario" + i + "@bloom.test");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < ITEMS; i++) {
+            if (filter.mightContain("libre" + i + "@bloom.test")) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < ITEMS * 0.03, "Falsos positivos: " + falsePositives);
+    }
+
+    @Test
+    void remove_ShouldForgetValueWithoutAffectingOthers() {
+        CountingBloomFilter filter = new CountingBloomFilter(ITEMS, 0.01);
+        for (int i = 0; i < 100; i++) {
+            filter.add("usuario" + i + "@bloom.test");
+        }
+
+        filter.remove("usuario0@bloom.test");
+
+        assertFalse(filter.mightContain("usuario0@bloom.test"));
+        for (int i = 1; i < 100; i++) {
+            assertTrue(filter.mightContain("usuario" + i + "@bloom.test"));
+        }
+    }
+}
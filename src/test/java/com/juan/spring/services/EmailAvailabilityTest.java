@@ -0,0 +1,158 @@
+package com.juan.spring.services;
+
+import com.juan.spring.entities.User;
+import com.juan.spring.repositories.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica la consulta de disponibilidad de correos: normalizada, de solo existencia y con el filtro en memoria delante.
+ */
+@SpringBootTest
+class EmailAvailabilityTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RegisteredEmailFilter registeredEmailFilter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setNombre("Disponible");
+        user.setCorreo("Registrado@Email.Test");
+        user.setContrasena("x");
+        user.setEstaActivo(true);
+        user = userRepository.save(user);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findById(user.getId()).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void isEmailAvailable_ShouldCompareNormalizedEmails() {
+        assertFalse(userService.isEmailAvailable("  registrado@email.test ", null));
+        assertTrue(userService.isEmailAvailable("REGISTRADO@email.test", user.getId()));
+    }
+
+    @Test
+    void isEmailAvailable_ForUnknownEmail_ShouldNotQueryDatabase() {
+        int free = 0;
+        for (int i = 0; i < 100; i++) {
+            if (userService.isEmailAvailable("libre" + i + "@email.test", null)) {
+                free++;
+            }
+        }
+
+        assertEquals(100, free);
+        // Solo los falsos positivos del filtro llegan a la base
+        assertTrue(statistics.getPrepareStatementCount() <= 5,
+            "Consultas para 100 correos libres: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void deleteUser_ShouldRemoveEmailFromFilter() {
+        // Correo propio: un alta revertida en otro test deja un falso positivo hasta la reconstrucción
+        User deleted = new User();
+        deleted.setNombre("Eliminado");
+        deleted.setCorreo("eliminado@email.test");
+        deleted.setContrasena("x");
+        deleted.setEstaActivo(true);
+        deleted = userRepository.save(deleted);
+        assertTrue(registeredEmailFilter.mightBeRegistered("eliminado@email.test"));
+
+        userService.deleteUser(deleted.getId());
+
+        assertFalse(registeredEmailFilter.mightBeRegistered("eliminado@email.test"));
+        assertTrue(userService.isEmailAvailable("eliminado@email.test", null));
+    }
+
+    @Test
+    void updatingEmail_ShouldRegisterNewEmail() {
+        User changes = new User();
+        changes.setCorreo("cambiado@email.test");
+        userService.partialUpdateUser(user.getId(), changes);
+
+        assertFalse(userService.isEmailAvailable("Cambiado@email.test", null));
+        assertTrue(userService.isEmailAvailable("registrado@email.test", null));
+    }
+
+    @Test
+    void save_WithEmailDifferingOnlyInCase_ShouldViolateUniqueIndex() {
+        User duplicate = new User();
+        duplicate.setNombre("Duplicado");
+        duplicate.setCorreo("REGISTRADO@email.test");
+        duplicate.setContrasena("x");
+        duplicate.setEstaActivo(true);
+
+        assertThrows(DataIntegrityViolationException.class, () -> userRepository.save(duplicate));
+    }
+
+    @Test
+    void rolledBackDeleteOrEmailChange_ShouldKeepEmailRegistered() {
+        transactionTemplate.executeWithoutResult(status -> {
+            User changes = new User();
+            changes.setCorreo("revertido@email.test");
+            userService.partialUpdateUser(user.getId(), changes);
+            userRepository.flush();
+            status.setRollbackOnly();
+        });
+        assertFalse(userService.isEmailAvailable("registrado@email.test", null));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userService.deleteUser(user.getId());
+            userRepository.flush();
+            status.setRollbackOnly();
+        });
+        assertTrue(registeredEmailFilter.mightBeRegistered("registrado@email.test"));
+        assertFalse(userService.isEmailAvailable("registrado@email.test", null));
+    }
+
+    @Test
+    void rebuild_ShouldUseTheSameNormalizationAsTheUniqueIndex() {
+        // trim() de Java quita tabuladores y saltos de línea; TRIM de SQL solo espacios
+        User tabulado = new User();
+        tabulado.setNombre("Tabulado");
+        tabulado.setCorreo("\tTabulado@Email.Test\n");
+        tabulado.setContrasena("x");
+        tabulado.setEstaActivo(true);
+        tabulado = userRepository.save(tabulado);
+        try {
+            registeredEmailFilter.rebuild();
+
+            assertTrue(registeredEmailFilter.mightBeRegistered("tabulado@email.test"));
+            assertFalse(userService.isEmailAvailable("Tabulado@email.test", null));
+        } finally {
+            userRepository.delete(tabulado);
+        }
+    }
+}
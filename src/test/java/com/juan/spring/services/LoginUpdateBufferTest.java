@@ -0,0 +1,92 @@
+package com.juan.spring.services;
+
+import com.juan.spring.dto.LoginDto;
+import com.juan.spring.entities.User;
+import com.juan.spring.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Intervalo largo para que solo se escriba cuando el test llama a flush()
+@SpringBootTest(properties = "app.security.login-updates.flush-interval=1h")
+class LoginUpdateBufferTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private LoginUpdateBuffer loginUpdateBuffer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        loginUpdateBuffer.flush();
+        user = new User();
+        user.setNombre("Login");
+        user.setCorreo("login@buffer.test");
+        user.setContrasena(passwordEncoder.encode("Secreta12"));
+        user.setEstaActivo(true);
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void login_ShouldDeferWriteUntilFlush() {
+        String token = authService.login(loginDto()).getAccessToken();
+
+        User stored = userRepository.findById(user.getId()).orElseThrow(IllegalStateException::new);
+        assertNull(stored.getUltimoLogin());
+        assertNull(stored.getToken());
+        assertEquals(1, loginUpdateBuffer.pendingCount());
+
+        loginUpdateBuffer.flush();
+
+        stored = userRepository.findById(user.getId()).orElseThrow(IllegalStateException::new);
+        assertEquals(token, stored.getToken());
+        assertNotNull(stored.getUltimoLogin());
+        assertEquals(0, loginUpdateBuffer.pendingCount());
+        // El UPDATE directo también avanza la versión, para que el ETag del usuario cambie
+        assertEquals(user.getVersion() + 1, stored.getVersion());
+    }
+
+    @Test
+    void record_ShouldMergeRepeatedLoginsKeepingTheLatest() {
+        LocalDateTime first = LocalDateTime.of(2024, 1, 1, 10, 0);
+        LocalDateTime second = first.plusMinutes(5);
+
+        loginUpdateBuffer.record(user.getId(), "token-2", second);
+        loginUpdateBuffer.record(user.getId(), "token-1", first);
+        assertEquals(1, loginUpdateBuffer.pendingCount());
+
+        loginUpdateBuffer.flush();
+
+        User stored = userRepository.findById(user.getId()).orElseThrow(IllegalStateException::new);
+        assertEquals("token-2", stored.getToken());
+        assertEquals(second, stored.getUltimoLogin());
+    }
+
+    private LoginDto loginDto() {
+        LoginDto loginDto = new LoginDto();
+        loginDto.setCorreo("login@buffer.test");
+        loginDto.setContrasena("Secreta12");
+        return loginDto;
+    }
+}
@@ -0,0 +1,150 @@
+package com.juan.spring.services;
+
+import com.juan.spring.entities.Phone;
+import com.juan.spring.entities.User;
+import com.juan.spring.repositories.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica que los teléfonos de PUT y PATCH se apliquen como una diferencia sobre los actuales.
+ */
+@SpringBootTest
+class PhoneReconciliationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private User other;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(user("reconciliar@phone.test", "111", "222", "333"));
+        other = userRepository.save(user("ajeno@phone.test", "999"));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+        userRepository.deleteById(other.getId());
+    }
+
+    @Test
+    void updateUser_ShouldUpdateInsertAndRemoveMissingPhones() {
+        List<Phone> current = phonesOf(user);
+        User changes = details();
+        changes.setTelefonos(new ArrayList<>(Arrays.asList(
+            withId(phone("111-editado"), current.get(0).getId()),
+            withId(phone("222"), current.get(1).getId()),
+            phone("444"))));
+
+        statistics.clear();
+        userService.updateUser(user.getId(), changes);
+
+        // select con teléfonos + secuencia + insert + update del teléfono + delete + update del usuario
+        assertTrue(statistics.getPrepareStatementCount() <= 6,
+            "Sentencias para reconciliar teléfonos: " + statistics.getPrepareStatementCount());
+        assertEquals(Arrays.asList("111-editado", "222", "444"), numerosOf(user));
+    }
+
+    @Test
+    void partialUpdateUser_ShouldKeepPhonesMissingFromPayload() {
+        List<Phone> current = phonesOf(user);
+        Phone onlyCity = withId(new Phone(), current.get(2).getId());
+        onlyCity.setCodigoCiudad("9");
+        User changes = new User();
+        changes.setTelefonos(new ArrayList<>(Arrays.asList(onlyCity, phone("555"))));
+
+        userService.partialUpdateUser(user.getId(), changes);
+
+        List<Phone> phones = phonesOf(user);
+        assertEquals(Arrays.asList("111", "222", "333", "555"), numerosOf(user));
+        assertEquals("9", phones.get(2).getCodigoCiudad());
+    }
+
+    @Test
+    void updateUser_WithForeignPhoneIds_ShouldRejectWithoutChanges() {
+        Long foreignId = phonesOf(other).get(0).getId();
+        User changes = details();
+        changes.setTelefonos(new ArrayList<>(Arrays.asList(withId(phone("robado"), foreignId), withId(phone("x"), -1L))));
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+            () -> userService.updateUser(user.getId(), changes));
+
+        assertTrue(error.getMessage().contains(foreignId.toString()));
+        assertTrue(error.getMessage().contains("-1"));
+        assertEquals(Arrays.asList("111", "222", "333"), numerosOf(user));
+        assertEquals(Arrays.asList("999"), numerosOf(other));
+    }
+
+    private List<Phone> phonesOf(User owner) {
+        List<Phone> phones = userService.getUserById(owner.getId())
+            .orElseThrow(IllegalStateException::new)
+            .getTelefonos();
+        phones.sort((a, b) -> a.getId().compareTo(b.getId()));
+        return phones;
+    }
+
+    private List<String> numerosOf(User owner) {
+        return phonesOf(owner).stream().map(Phone::getNumero).collect(Collectors.toList());
+    }
+
+    private User details() {
+        User changes = new User();
+        changes.setNombre("Reconciliar");
+        changes.setCorreo("reconciliar@phone.test");
+        changes.setEstaActivo(true);
+        return changes;
+    }
+
+    private User user(String correo, String... numeros) {
+        User user = new User();
+        user.setNombre("Reconciliar");
+        user.setCorreo(correo);
+        user.setContrasena("x");
+        user.setEstaActivo(true);
+        List<Phone> phones = new ArrayList<>();
+        for (String numero : numeros) {
+            Phone phone = phone(numero);
+            phone.setUser(user);
+            phones.add(phone);
+        }
+        user.setTelefonos(phones);
+        return user;
+    }
+
+    private Phone phone(String numero) {
+        Phone phone = new Phone();
+        phone.setNumero(numero);
+        phone.setCodigoCiudad("1");
+        phone.setCodigoPais("57");
+        return phone;
+    }
+
+    private Phone withId(Phone phone, Long id) {
+        phone.setId(id);
+        return phone;
+    }
+}
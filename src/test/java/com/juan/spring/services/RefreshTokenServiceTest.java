@@ -0,0 +1,124 @@
+package com.juan.spring.services;
+
+import com.juan.spring.dto.JwtAuthResponse;
+import com.juan.spring.dto.LoginDto;
+import com.juan.spring.dto.RefreshTokenDto;
+import com.juan.spring.entities.User;
+import com.juan.spring.repositories.UserRepository;
+import com.juan.spring.security.JwtTokenProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica el intercambio de refresh tokens: no calcula hashes de contraseña, rota en cada uso y revoca la
+ * familia completa cuando se reutiliza un token.
+ */
+// Intervalo largo: el UPDATE diferido del login no debe competir con el borrado del usuario en tearDown
+@SpringBootTest(properties = "app.security.login-updates.flush-interval=1h")
+class RefreshTokenServiceTest {
+
+    private static final String CORREO = "refresh@tokens.test";
+    private static final String CONTRASENA = "Password1!";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setNombre("Refresh");
+        user.setCorreo(CORREO);
+        user.setContrasena(passwordEncoder.encode(CONTRASENA));
+        user.setEstaActivo(true);
+        user = userRepository.save(user);
+    }
+
+    // deleteUser también descarta la caché de UserDetails y los refresh tokens del usuario
+    @AfterEach
+    void tearDown() {
+        userService.deleteUser(user.getId());
+    }
+
+    @Test
+    void refresh_AfterLogin_ShouldRotateWithoutHashingPasswords() {
+        JwtAuthResponse login = login();
+        assertNotNull(login.getRefreshToken());
+
+        double hashesBefore = passwordHashes();
+        JwtAuthResponse refreshed = authService.refresh(dto(login.getRefreshToken()));
+
+        assertEquals(hashesBefore, passwordHashes());
+        assertNotEquals(login.getRefreshToken(), refreshed.getRefreshToken());
+        assertEquals(CORREO, tokenProvider.obtenerUsernameDelJWT(refreshed.getAccessToken()));
+        assertNotNull(tokenProvider.verificarToken(refreshed.getAccessToken()).getClaims().getExpiration());
+    }
+
+    @Test
+    void refresh_WithAlreadyUsedToken_ShouldRevokeWholeFamily() {
+        String first = login().getRefreshToken();
+        String second = authService.refresh(dto(first)).getRefreshToken();
+
+        assertThrows(InvalidRefreshTokenException.class, () -> authService.refresh(dto(first)));
+        // El token vigente de la familia también quedó revocado
+        assertThrows(InvalidRefreshTokenException.class, () -> authService.refresh(dto(second)));
+    }
+
+    @Test
+    void refresh_AfterPasswordChange_ShouldBeRejected() {
+        String refreshToken = login().getRefreshToken();
+        User changes = new User();
+        changes.setContrasena(passwordEncoder.encode("OtraPassword1!"));
+        userService.partialUpdateUser(user.getId(), changes);
+
+        assertThrows(InvalidRefreshTokenException.class, () -> authService.refresh(dto(refreshToken)));
+    }
+
+    @Test
+    void refresh_WithUnknownOrMissingToken_ShouldBeRejected() {
+        assertThrows(InvalidRefreshTokenException.class, () -> authService.refresh(dto("desconocido")));
+        assertThrows(IllegalArgumentException.class, () -> authService.refresh(dto(" ")));
+    }
+
+    private JwtAuthResponse login() {
+        LoginDto loginDto = new LoginDto();
+        loginDto.setCorreo(CORREO);
+        loginDto.setContrasena(CONTRASENA);
+        return authService.login(loginDto);
+    }
+
+    private double passwordHashes() {
+        return meterRegistry.get("password.hashing.duration").timers().stream()
+            .mapToDouble(timer -> timer.count())
+            .sum();
+    }
+
+    private static RefreshTokenDto dto(String refreshToken) {
+        RefreshTokenDto dto = new RefreshTokenDto();
+        dto.setRefreshToken(refreshToken);
+        return dto;
+    }
+}
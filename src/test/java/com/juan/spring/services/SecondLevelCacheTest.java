@@ -0,0 +1,168 @@
+package com.juan.spring.services;
+
+import com.juan.spring.controllers.AsyncMockMvc;
+import com.juan.spring.entities.Phone;
+import com.juan.spring.entities.User;
+import com.juan.spring.repositories.UserRepository;
+import com.juan.spring.security.CustomUserDetailsService;
+import com.juan.spring.security.JwtTokenProvider;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica la caché de segundo nivel: las lecturas repetidas de un usuario no llegan a la base de datos y las
+ * escrituras, también las que van por JDBC, desalojan las entradas que cambian.
+ */
+// Intervalo largo para que el UPDATE del último login solo se escriba cuando el test llama a flush()
+@SpringBootTest(properties = "app.security.login-updates.flush-interval=1h")
+@AutoConfigureMockMvc
+class SecondLevelCacheTest {
+
+    private static final String CORREO = "cache@segundo-nivel.test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LoginUpdateBuffer loginUpdateBuffer;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+
+        user = new User();
+        user.setNombre("Cache");
+        user.setCorreo(CORREO);
+        user.setContrasena("x");
+        user.setEstaActivo(true);
+        user.setTelefonos(new ArrayList<>(Collections.singletonList(phone(user, "100"))));
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.deleteUser(user.getId());
+    }
+
+    @Test
+    void getUserById_AfterWarmUp_ShouldIssueNoStatements() throws Exception {
+        String token = "Bearer " + tokenProvider.generarToken(new UsernamePasswordAuthenticationToken(
+            CORREO, null, CustomUserDetailsService.DEFAULT_AUTHORITIES), user.getId());
+        AsyncMockMvc.perform(mockMvc, get("/users/{id}", user.getId()).header("Authorization", token))
+            .andExpect(status().isOk());
+
+        statistics.clear();
+        AsyncMockMvc.perform(mockMvc, get("/users/{id}", user.getId()).header("Authorization", token))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.telefonos[0].numero").value("100"));
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 3, "usuario, colección y teléfono desde la caché");
+    }
+
+    @Test
+    void partialUpdateUser_ShouldEvictCachedUserAndPhones() {
+        userService.getUserById(user.getId());
+
+        User changes = new User();
+        changes.setNombre("Cache actualizado");
+        changes.setTelefonos(new ArrayList<>(Collections.singletonList(phone(null, "200"))));
+        userService.partialUpdateUser(user.getId(), changes);
+
+        User stored = userService.getUserById(user.getId()).orElseThrow(IllegalStateException::new);
+        assertEquals("Cache actualizado", stored.getNombre());
+        assertEquals(Arrays.asList("100", "200"), numeros(stored));
+    }
+
+    @Test
+    void loginUpdateFlush_ShouldEvictUserUpdatedThroughJdbc() {
+        long version = userService.getUserVersion(user.getId()).orElseThrow(IllegalStateException::new);
+
+        loginUpdateBuffer.record(user.getId(), "token", LocalDateTime.now());
+        loginUpdateBuffer.flush();
+
+        assertEquals(Long.valueOf(version + 1), userService.getUserVersion(user.getId()).orElse(null));
+        assertEquals("token", userService.getUserById(user.getId()).map(User::getToken).orElse(null));
+    }
+
+    @Test
+    void getUserByEmail_ShouldUseQueryCacheUntilUsersChange() {
+        userService.getUserByEmail(CORREO);
+
+        statistics.clear();
+        assertTrue(userService.getUserByEmail(CORREO).isPresent());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        User changes = new User();
+        changes.setCorreo("cambiado@segundo-nivel.test");
+        userService.partialUpdateUser(user.getId(), changes);
+
+        assertFalse(userService.getUserByEmail(CORREO).isPresent());
+    }
+
+    @Test
+    void exportUsers_ShouldNotFillTheCache() {
+        Cache cache = entityManagerFactory.getCache();
+        cache.evictAll();
+
+        List<UUID> exported = new ArrayList<>();
+        userService.exportUsers(dto -> exported.add(dto.getId()));
+
+        assertTrue(exported.contains(user.getId()));
+        assertFalse(cache.contains(User.class, user.getId()), "usuario exportado en la caché");
+        assertFalse(cache.contains(Phone.class, user.getTelefonos().get(0).getId()), "teléfono exportado en la caché");
+    }
+
+    private static List<String> numeros(User user) {
+        return user.getTelefonos().stream().map(Phone::getNumero).sorted().collect(Collectors.toList());
+    }
+
+    private static Phone phone(User user, String numero) {
+        Phone phone = new Phone();
+        phone.setNumero(numero);
+        phone.setCodigoCiudad("1");
+        phone.setCodigoPais("57");
+        phone.setUser(user);
+        return phone;
+    }
+}
@@ -0,0 +1,137 @@
+package com.juan.spring.services;
+
+import com.juan.spring.dto.PhoneDto;
+import com.juan.spring.dto.UserBatchResultDto;
+import com.juan.spring.dto.UserBatchRowDto;
+import com.juan.spring.dto.UserCreateUpdateDto;
+import com.juan.spring.entities.User;
+import com.juan.spring.repositories.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Importa un lote de usuarios con teléfonos y verifica el reporte por fila y que los INSERT se agrupen en lotes JDBC.
+ */
+@SpringBootTest
+class UserBatchImportTest {
+
+    private static final int USERS = 40;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User existing;
+
+    @BeforeEach
+    void setUp() {
+        existing = new User();
+        existing.setNombre("Existente");
+        existing.setCorreo("existente@batch.test");
+        existing.setContrasena("x");
+        existing.setEstaActivo(true);
+        existing = userRepository.save(existing);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<User> imported = userRepository.findAll().stream()
+            .filter(user -> user.getCorreo().endsWith("@batch.test"))
+            .collect(Collectors.toList());
+        userRepository.deleteAll(imported);
+    }
+
+    @Test
+    void importUsers_ShouldCreateValidRowsAndReportRejectedOnes() {
+        List<UserCreateUpdateDto> dtos = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            dtos.add(dto("lote" + i + "@batch.test"));
+        }
+        dtos.add(dto("no-es-correo"));
+        dtos.add(dto("existente@batch.test"));
+        dtos.add(dto("lote0@batch.test"));
+
+        UserBatchResultDto result = userService.importUsers(dtos);
+
+        assertEquals(USERS + 3, result.getTotal());
+        assertEquals(USERS, result.getCreados());
+        assertEquals(3, result.getRechazados());
+        assertEquals(UserBatchRowDto.RECHAZADO, result.getResultados().get(USERS).getEstado());
+        assertTrue(result.getResultados().get(USERS + 1).getError().contains("ya está registrado"));
+        assertTrue(result.getResultados().get(USERS + 2).getError().contains("repetido"));
+
+        UUID firstId = result.getResultados().get(0).getId();
+        User first = userService.getUserById(firstId).orElseThrow(IllegalStateException::new);
+        assertEquals(2, first.getTelefonos().size());
+        assertTrue(passwordEncoder.matches("Secreta1!", first.getContrasena()));
+    }
+
+    @Test
+    void importUsers_ShouldBatchInserts() {
+        List<UserCreateUpdateDto> dtos = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            dtos.add(dto("lote" + i + "@batch.test"));
+        }
+
+        userService.importUsers(dtos);
+
+        // 40 usuarios y 80 teléfonos insertados; sin lotes JDBC serían 120 sentencias
+        assertEquals(USERS + 2L * USERS, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 10,
+            "Sentencias preparadas para importar " + USERS + " usuarios: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void importUsers_WithTooManyRows_ShouldRejectWholeRequest() {
+        List<UserCreateUpdateDto> dtos = new ArrayList<>();
+        for (int i = 0; i <= 10_000; i++) {
+            dtos.add(dto("lote" + i + "@batch.test"));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> userService.importUsers(dtos));
+    }
+
+    private UserCreateUpdateDto dto(String correo) {
+        UserCreateUpdateDto dto = new UserCreateUpdateDto();
+        dto.setNombre("Lote");
+        dto.setCorreo(correo);
+        dto.setContrasena("Secreta1!");
+        dto.setTelefonos(Arrays.asList(phone("1"), phone("2")));
+        return dto;
+    }
+
+    private PhoneDto phone(String numero) {
+        PhoneDto phone = new PhoneDto();
+        phone.setNumero(numero);
+        phone.setCodigoCiudad("1");
+        phone.setCodigoPais("57");
+        return phone;
+    }
+}
@@ -0,0 +1,95 @@
+package com.juan.spring.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juan.spring.repositories.UserRepository;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exporta una tabla sintética de usuarios y verifica que el contexto de persistencia no crezca con ella.
+ * Por defecto usa pocas filas; el perfil Maven "export-large" la ejecuta con 1M de filas y un heap reducido.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:file:./target/h2/export-${random.uuid};DB_CLOSE_ON_EXIT=FALSE",
+    "spring.jpa.show-sql=false"
+})
+class UserExportTest {
+
+    private static final int ROWS = Integer.getInteger("export.rows", 20_000);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void exportUsers_ShouldStreamEveryRowWithBoundedPersistenceContext() throws IOException {
+        long existing = userRepository.count();
+        jdbcTemplate.update(
+            "INSERT INTO usuarios (id, nombre, correo, contrasena, esta_activo, creado, modificado) "
+                + "SELECT CAST(RANDOM_UUID() AS VARCHAR), 'Usuario ' || X, 'usuario' || X || '@export.test', "
+                + "'x', TRUE, DATEADD('SECOND', X, CURRENT_TIMESTAMP), CURRENT_TIMESTAMP "
+                + "FROM SYSTEM_RANGE(1, ?)", ROWS);
+
+        AtomicInteger exported = new AtomicInteger();
+        AtomicInteger maxManagedEntities = new AtomicInteger();
+        CountingOutputStream out = new CountingOutputStream();
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            userService.exportUsers(user -> {
+                try {
+                    objectMapper.writeValue(generator, user);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                exported.incrementAndGet();
+                int managed = entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+                maxManagedEntities.accumulateAndGet(managed, Math::max);
+            });
+        }
+
+        assertEquals(existing + ROWS, exported.get());
+        assertTrue(out.bytes.get() > 0);
+        assertTrue(maxManagedEntities.get() <= 2 * UserRepository.EXPORT_FETCH_SIZE,
+            "Entidades gestionadas durante la exportación: " + maxManagedEntities.get());
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private final AtomicLong bytes = new AtomicLong();
+
+        @Override
+        public void write(int b) {
+            bytes.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes.addAndGet(len);
+        }
+    }
+}
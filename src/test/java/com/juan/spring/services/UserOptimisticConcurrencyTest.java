@@ -0,0 +1,141 @@
+package com.juan.spring.services;
+
+import com.juan.spring.dto.PhoneDto;
+import com.juan.spring.dto.UserCreateUpdateDto;
+import com.juan.spring.dto.UserDto;
+import com.juan.spring.entities.User;
+import com.juan.spring.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica el control de concurrencia optimista de PUT y PATCH: If-Match obsoleto se rechaza sin escribir
+ * y las escrituras concurrentes sin If-Match se reintentan en lugar de pisarse o fallar con 500.
+ */
+@SpringBootTest(properties = "app.users.updates.max-attempts=20")
+class UserOptimisticConcurrencyTest {
+
+    private static final String CORREO = "concurrente@version.test";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setNombre("Concurrente");
+        user.setCorreo(CORREO);
+        user.setContrasena("x");
+        user.setEstaActivo(true);
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void updateUser_WithCurrentVersion_ShouldAdvanceVersion() {
+        UserDto updated = userService.updateUserWithValidation(user.getId(), changes("Nuevo", "111"),
+            Collections.singleton(user.getVersion()));
+
+        assertEquals("Nuevo", updated.getNombre());
+        assertEquals(user.getVersion() + 1, updated.getVersion());
+    }
+
+    @Test
+    void partialUpdateUser_WithVersionListContainingCurrent_ShouldApplyChanges() {
+        Set<Long> listed = new HashSet<>(Arrays.asList(user.getVersion() - 1, user.getVersion()));
+
+        UserDto updated = userService.partialUpdateUserWithValidation(user.getId(), changes("Lista", null), listed);
+
+        assertEquals("Lista", updated.getNombre());
+        assertEquals(user.getVersion() + 1, updated.getVersion());
+    }
+
+    @Test
+    void partialUpdateUser_WithStaleVersion_ShouldRejectWithoutChanges() {
+        // Otra escritura (por ejemplo el UPDATE de último login) avanza la versión después de la lectura
+        jdbcTemplate.update("update usuarios set version = version + 1 where id = ?", user.getId());
+
+        UserVersionMismatchException error = assertThrows(UserVersionMismatchException.class,
+            () -> userService.partialUpdateUserWithValidation(user.getId(), changes("Pisado", null),
+                Collections.singleton(user.getVersion())));
+
+        assertEquals(Long.valueOf(user.getVersion() + 1), error.getCurrentVersion());
+        assertEquals("Concurrente", userRepository.findById(user.getId()).orElseThrow(IllegalStateException::new).getNombre());
+    }
+
+    @Test
+    void updateUser_ConcurrentPhoneReplacements_ShouldAllSucceedKeepingOneSet() throws Exception {
+        int writers = 4;
+        int updatesPerWriter = 5;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int w = 0; w < writers; w++) {
+                String numero = "30" + w;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < updatesPerWriter; i++) {
+                        userService.updateUserWithValidation(user.getId(), changes("Concurrente", numero), null);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        User stored = userService.getUserById(user.getId()).orElseThrow(IllegalStateException::new);
+        assertEquals(1, stored.getTelefonos().size());
+        assertEquals(Long.valueOf(writers * updatesPerWriter), stored.getVersion());
+    }
+
+    private UserCreateUpdateDto changes(String nombre, String numero) {
+        UserCreateUpdateDto dto = new UserCreateUpdateDto();
+        dto.setNombre(nombre);
+        dto.setCorreo(CORREO);
+        dto.setEstaActivo(true);
+        if (numero != null) {
+            PhoneDto phone = new PhoneDto();
+            phone.setNumero(numero);
+            phone.setCodigoCiudad("1");
+            phone.setCodigoPais("57");
+            dto.setTelefonos(Collections.singletonList(phone));
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,59 @@
+package com.juan.spring.services;
+
+import com.juan.spring.config.PaginationProperties;
+import com.juan.spring.dto.UserDto;
+import com.juan.spring.dto.UserPageDto;
+import com.juan.spring.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UserServicePaginationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PaginationProperties paginationProperties;
+
+    @Test
+    void getUsersPage_ShouldWalkAllUsersWithoutRepeating() {
+        Set<UUID> visited = new LinkedHashSet<>();
+        String cursor = null;
+        do {
+            UserPageDto page = userService.getUsersPage(cursor, 2);
+            assertTrue(page.getUsuarios().size() <= 2);
+            for (UserDto user : page.getUsuarios()) {
+                assertTrue(visited.add(user.getId()), "Usuario repetido entre páginas: " + user.getId());
+            }
+            cursor = page.getSiguienteCursor();
+        } while (cursor != null);
+
+        assertEquals(userRepository.count(), visited.size());
+    }
+
+    @Test
+    void getUsersPage_ShouldCapPageSize() {
+        int maxSize = paginationProperties.getMaxSize();
+        UserPageDto page = userService.getUsersPage(null, maxSize + 1);
+
+        assertEquals(maxSize, page.getTamano());
+        assertTrue(page.getUsuarios().size() <= maxSize);
+    }
+
+    @Test
+    void getUsersPage_WithInvalidInput_ShouldThrowIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsersPage("no-es-un-cursor", 2));
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsersPage(null, 0));
+    }
+}
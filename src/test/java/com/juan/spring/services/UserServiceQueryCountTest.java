@@ -0,0 +1,117 @@
+package com.juan.spring.services;
+
+import com.juan.spring.entities.Phone;
+import com.juan.spring.entities.User;
+import com.juan.spring.repositories.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cuenta las sentencias SQL de las lecturas de usuarios para detectar regresiones N+1 en los teléfonos.
+ */
+@SpringBootTest
+class UserServiceQueryCountTest {
+
+    private static final int USERS = 60;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private List<User> seeded;
+
+    @BeforeEach
+    void setUp() {
+        seeded = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setNombre("Consulta " + i);
+            user.setCorreo("consulta" + i + "@query.test");
+            user.setContrasena("x");
+            user.setEstaActivo(true);
+            user.setTelefonos(new ArrayList<>(Arrays.asList(phone(user, "1" + i), phone(user, "2" + i))));
+            seeded.add(user);
+        }
+        seeded = userRepository.saveAll(seeded);
+        // saveAll deja usuarios y teléfonos en la caché de segundo nivel; las lecturas se miden en frío
+        entityManagerFactory.getCache().evictAll();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll(seeded);
+    }
+
+    @Test
+    void getUsersPage_ShouldNotIssueMoreStatementsForMoreUsers() {
+        long small = statementsFor(() -> userService.getUsersPage(null, 5));
+        long large = statementsFor(() -> userService.getUsersPage(null, USERS));
+
+        assertEquals(small, large, "Las sentencias de una página crecen con la cantidad de usuarios");
+        assertTrue(large <= 2, "Sentencias para una página de " + USERS + " usuarios: " + large);
+    }
+
+    @Test
+    void getAllUsers_ShouldNotIssueMoreStatementsForMoreUsers() {
+        long statements = statementsFor(() -> userService.getAllUsers().forEach(userService::convertToDto));
+
+        assertTrue(statements <= 2, "Sentencias para el listado sin paginar: " + statements);
+    }
+
+    @Test
+    void getUserById_WhenNotCached_ShouldLoadUserAndPhonesInTwoStatements() {
+        User user = seeded.get(0);
+        long statements = statementsFor(() -> readWithPhones(user));
+
+        assertEquals(2, statements);
+    }
+
+    @Test
+    void getUserById_WhenCached_ShouldNotReachTheDatabase() {
+        User user = seeded.get(0);
+        readWithPhones(user);
+
+        assertEquals(0, statementsFor(() -> readWithPhones(user)));
+    }
+
+    private void readWithPhones(User user) {
+        userService.getUserById(user.getId())
+            .map(userService::convertToDto)
+            .ifPresent(dto -> assertEquals(2, dto.getTelefonos().size()));
+    }
+
+    private long statementsFor(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Phone phone(User user, String numero) {
+        Phone phone = new Phone();
+        phone.setNumero(numero);
+        phone.setCodigoCiudad("1");
+        phone.setCodigoPais("57");
+        phone.setUser(user);
+        return phone;
+    }
+}
@@ -0,0 +1,75 @@
+package com.juan.spring.validation;
+
+import com.juan.spring.dto.ValidationErrorResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserInputValidatorTest {
+
+    private static final String ALPHABET = "aZ9@#!. \t -_xY0%";
+
+    private final UserInputValidator validator = new UserInputValidator();
+
+    @Test
+    void isValidPassword_ShouldAgreeWithPasswordPatternUpToMaxLength() {
+        Pattern pattern = Pattern.compile(ValidationPatterns.PASSWORD_PATTERN);
+        Random random = new Random(42);
+        int accepted = 0;
+        for (int i = 0; i < 20000; i++) {
+            char[] chars = new char[random.nextInt(ValidationPatterns.PASSWORD_MAX_LENGTH + 1)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            }
+            String candidate = new String(chars);
+            boolean expected = pattern.matcher(candidate).matches();
+            assertEquals(expected, validator.isValidPassword(candidate), candidate);
+            accepted += expected ? 1 : 0;
+        }
+        assertTrue(accepted > 0, "El corpus no incluye contraseñas válidas");
+    }
+
+    @Test
+    void isValidPassword_ShouldRejectInputsOverMaxLength() {
+        char[] tail = new char[ValidationPatterns.PASSWORD_MAX_LENGTH];
+        Arrays.fill(tail, 'a');
+        String password = "Aa1!" + new String(tail);
+
+        assertFalse(validator.isValidPassword(password));
+        assertTrue(validator.isValidPassword(password.substring(0, ValidationPatterns.PASSWORD_MAX_LENGTH)));
+    }
+
+    @Test
+    void isValidEmail_ShouldApplyPatternAndMaxLength() {
+        char[] local = new char[ValidationPatterns.EMAIL_MAX_LENGTH];
+        Arrays.fill(local, 'a');
+
+        assertTrue(validator.isValidEmail("usuario@dominio.com"));
+        assertFalse(validator.isValidEmail("usuario dominio.com"));
+        assertFalse(validator.isValidEmail(new String(local) + "@dominio.com"));
+        assertFalse(validator.isValidEmail(null));
+    }
+
+    @Test
+    void validate_ShouldCollectEveryErrorAndSkipOptionalNulls() {
+        ValidationErrorResponse errors = new ValidationErrorResponse();
+        validator.validateEmail("sin-arroba", false, errors);
+        validator.validatePassword("corta", false, errors);
+        assertEquals(Arrays.asList(ValidationPatterns.EMAIL_ERROR_MESSAGE, ValidationPatterns.PASSWORD_ERROR_MESSAGE),
+            errors.getErrors());
+
+        ValidationErrorResponse optional = new ValidationErrorResponse();
+        validator.validateEmail(null, false, optional);
+        validator.validatePassword(null, false, optional);
+        assertTrue(optional.getErrors().isEmpty());
+
+        ValidationErrorResponse required = new ValidationErrorResponse();
+        validator.validateEmail("  ", true, required);
+        validator.validatePassword(null, true, required);
+        assertEquals(2, required.getErrors().size());
+    }
+}